@@ -0,0 +1,32 @@
+package com.nlsql.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Per-thread view of the question corpus that hands out questions round-robin.
+ */
+@State(Scope.Thread)
+public class CorpusState {
+
+    protected List<String> questions;
+    private int cursor;
+
+    @Setup
+    public void loadCorpus() {
+        questions = QuestionCorpus.generate();
+    }
+
+    public String nextQuestion() {
+        return questions.get(nextIndex());
+    }
+
+    protected int nextIndex() {
+        int index = cursor;
+        cursor = (index + 1) % questions.size();
+        return index;
+    }
+}
@@ -0,0 +1,174 @@
+package com.nlsql.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JdbcTemplate stand-in that answers the catalog queries issued by the services from an
+ * in-memory schema and returns canned rows for generated SQL, so the pipeline can be
+ * benchmarked without a database.
+ */
+public class InMemoryJdbcTemplate extends JdbcTemplate {
+
+    private static final int RESULT_ROWS = 25;
+    // Statistics of every other text column show it to be unique per row
+    private static final double TABLE_ROWS = 10_000;
+    private static final List<String> CITIES = List.of("Mumbai", "Delhi", "Bangalore", "Chennai", "Pune", "Hyderabad");
+    private static final Map<String, List<String>> DISTINCT_VALUES = Map.of(
+        "city", CITIES,
+        "location", CITIES,
+        "department", List.of("Engineering", "Marketing", "HR", "Sales"),
+        "category", List.of("Electronics", "Furniture", "Books", "Clothing"),
+        "status", List.of("pending", "shipped", "completed", "cancelled"));
+
+    private final Map<String, List<Map<String, Object>>> columnsByTable = new LinkedHashMap<>();
+    private final List<Map<String, Object>> selectRows = new ArrayList<>();
+    private final List<Map<String, Object>> countRows = List.of(Map.of("count", 10_000L));
+
+    /**
+     * Creates a schema with the tables from init.sql, each padded with synthetic
+     * columns up to {@code width} columns.
+     */
+    public InMemoryJdbcTemplate(int width) {
+        addTable("employees", width, "id:integer", "name:character varying", "email:character varying",
+            "city:character varying", "department:character varying", "salary:numeric", "age:integer",
+            "hire_date:date", "is_active:boolean");
+        addTable("departments", width, "id:integer", "name:character varying", "manager_id:integer",
+            "budget:numeric", "location:character varying");
+        addTable("products", width, "id:integer", "name:character varying", "price:numeric",
+            "category:character varying", "stock_quantity:integer", "created_date:date");
+        addTable("orders", width, "id:integer", "customer_id:integer", "product_id:integer", "quantity:integer",
+            "total_amount:numeric", "order_date:date", "status:character varying");
+
+        for (int i = 0; i < RESULT_ROWS; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i + 1);
+            row.put("name", "Employee " + i);
+            row.put("city", i % 2 == 0 ? "Mumbai" : "Delhi");
+            row.put("salary", 50_000 + i * 1_000);
+            selectRows.add(row);
+        }
+    }
+
+    private void addTable(String tableName, int width, String... columns) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < Math.max(width, columns.length); i++) {
+            String[] column = i < columns.length
+                ? columns[i].split(":")
+                : new String[] {String.format("attr_%03d", i), "character varying"};
+            rows.add(Map.of(
+                "column_name", column[0],
+                "data_type", column[1],
+                "is_nullable", i == 0 ? "NO" : "YES"));
+        }
+        columnsByTable.put(tableName, rows);
+    }
+
+    public List<String> getTableNames() {
+        return new ArrayList<>(columnsByTable.keySet());
+    }
+
+    @Override
+    public void execute(String sql) {
+        // DDL is a no-op against the in-memory schema
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+        if (sql.contains("information_schema.tables")) {
+            Object count = columnsByTable.containsKey(String.valueOf(args[0])) ? 1 : 0;
+            return (T) count;
+        }
+        if (sql.contains("pg_stat_user_tables")) {
+            // The in-memory tables never change
+            return (T) Long.valueOf(0);
+        }
+        return (T) Integer.valueOf(selectRows.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T queryForObject(String sql, Class<T> requiredType) {
+        return (T) Integer.valueOf(selectRows.size());
+    }
+
+    @Override
+    public List<Map<String, Object>> queryForList(String sql, Object... args) {
+        if (sql.contains("information_schema.columns")) {
+            return columnsByTable.getOrDefault(String.valueOf(args[0]), List.of());
+        }
+        if (sql.contains("information_schema.table_constraints")) {
+            // Every sample table is keyed by its leading id column
+            return columnsByTable.containsKey(String.valueOf(args[0]))
+                ? List.of(Map.of("column_name", "id"))
+                : List.of();
+        }
+        if (sql.contains("pg_index")) {
+            // No secondary indexes
+            return List.of();
+        }
+        return queryForList(sql);
+    }
+
+    /** Column statistics: complete most-common-value lists for the sample-data columns. */
+    @Override
+    public void query(String sql, RowCallbackHandler rch, Object... args) {
+        if (!sql.contains("pg_stats")) {
+            return;
+        }
+        for (Map<String, Object> column : columnsByTable.getOrDefault(String.valueOf(args[0]), List.of())) {
+            String columnName = (String) column.get("column_name");
+            List<String> values = DISTINCT_VALUES.get(columnName);
+            try {
+                rch.processRow(statisticsRow(columnName, values == null ? TABLE_ROWS : values.size(), values));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> queryForList(String sql) {
+        return sql.contains("COUNT(") ? countRows : selectRows;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+        if (sql.contains("information_schema.tables")) {
+            // Every sample table lives in public
+            return "public".equals(args[0]) ? (List<T>) getTableNames() : List.of();
+        }
+        return queryForList(sql, elementType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> queryForList(String sql, Class<T> elementType) {
+        return (List<T>) getTableNames();
+    }
+
+    // One pg_stats row, read by column label as the services do
+    private static ResultSet statisticsRow(String columnName, double distinctValues, List<String> mostCommonValues) {
+        Array array = mostCommonValues == null ? null : (Array) Proxy.newProxyInstance(
+            Array.class.getClassLoader(), new Class<?>[] {Array.class},
+            (proxy, method, methodArgs) -> mostCommonValues.toArray(new String[0]));
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, methodArgs) -> switch (method.getName() + ":" + methodArgs[0]) {
+                case "getString:column_name" -> columnName;
+                case "getDouble:distinct_values" -> distinctValues;
+                case "getArray:most_common_vals" -> array;
+                default -> throw new UnsupportedOperationException(method.getName() + " " + methodArgs[0]);
+            });
+    }
+}
@@ -0,0 +1,96 @@
+package com.nlsql.benchmark;
+
+import com.nlsql.config.FederationProperties;
+import com.nlsql.service.AdmissionControlService;
+import com.nlsql.service.AggregateCacheService;
+import com.nlsql.service.ApproximateQueryService;
+import com.nlsql.service.ColumnarEngineService;
+import com.nlsql.service.DataSourceRegistry;
+import com.nlsql.service.DatabaseSchemaService;
+import com.nlsql.service.IndexAdvisorService;
+import com.nlsql.service.KeysetPaginationService;
+import com.nlsql.service.NLPProcessorService;
+import com.nlsql.service.NLSQLConverterService;
+import com.nlsql.service.QueryExecutionService;
+import com.nlsql.service.ValueDictionaryService;
+import com.nlsql.service.WorkloadAnalyticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * The translation services in a small Spring context, wired and initialized as in the
+ * application, over an {@link InMemoryJdbcTemplate} of the requested schema width. Settings are
+ * the application defaults apart from {@link #PROPERTIES}; schedulers are not started, so the
+ * value dictionary is built once here.
+ */
+public final class Pipeline implements AutoCloseable {
+
+    private static final Map<String, Object> PROPERTIES = Map.of(
+        // Admission is an HTTP concern; the benchmarks drive the services directly
+        "nlsql.admission.enabled", false,
+        "nlsql.pagination.secret", "benchmark"
+    );
+
+    private final AnnotationConfigApplicationContext context;
+
+    public final InMemoryJdbcTemplate jdbcTemplate;
+    public final DataSourceRegistry dataSourceRegistry;
+    public final ValueDictionaryService valueDictionaryService;
+    public final NLPProcessorService nlpProcessorService;
+    public final DatabaseSchemaService databaseSchemaService;
+    public final QueryExecutionService queryExecutionService;
+    public final KeysetPaginationService keysetPaginationService;
+    public final ApproximateQueryService approximateQueryService;
+    public final AggregateCacheService aggregateCacheService;
+    public final ColumnarEngineService columnarEngineService;
+    public final WorkloadAnalyticsService workloadAnalyticsService;
+    public final IndexAdvisorService indexAdvisorService;
+    public final AdmissionControlService admissionControlService;
+    public final NLSQLConverterService converterService;
+
+    public Pipeline(int schemaWidth) {
+        jdbcTemplate = new InMemoryJdbcTemplate(schemaWidth);
+
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", PROPERTIES));
+        context.getBeanFactory().setConversionService(new DefaultConversionService());
+        // A ready-made singleton: as a bean definition its missing DataSource would fail initialization
+        context.getBeanFactory().registerSingleton("jdbcTemplate", jdbcTemplate);
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        // Only the primary source, as with an empty nlsql.federation.sources
+        context.registerBean(FederationProperties.class);
+        context.register(DataSourceRegistry.class, DatabaseSchemaService.class, ValueDictionaryService.class,
+            NLPProcessorService.class, QueryExecutionService.class, KeysetPaginationService.class,
+            ApproximateQueryService.class, AggregateCacheService.class, ColumnarEngineService.class,
+            WorkloadAnalyticsService.class, IndexAdvisorService.class, AdmissionControlService.class,
+            NLSQLConverterService.class);
+        context.refresh();
+
+        dataSourceRegistry = context.getBean(DataSourceRegistry.class);
+        databaseSchemaService = context.getBean(DatabaseSchemaService.class);
+        valueDictionaryService = context.getBean(ValueDictionaryService.class);
+        nlpProcessorService = context.getBean(NLPProcessorService.class);
+        queryExecutionService = context.getBean(QueryExecutionService.class);
+        keysetPaginationService = context.getBean(KeysetPaginationService.class);
+        approximateQueryService = context.getBean(ApproximateQueryService.class);
+        aggregateCacheService = context.getBean(AggregateCacheService.class);
+        columnarEngineService = context.getBean(ColumnarEngineService.class);
+        workloadAnalyticsService = context.getBean(WorkloadAnalyticsService.class);
+        indexAdvisorService = context.getBean(IndexAdvisorService.class);
+        admissionControlService = context.getBean(AdmissionControlService.class);
+        converterService = context.getBean(NLSQLConverterService.class);
+
+        valueDictionaryService.refresh();
+    }
+
+    /** Stops the batch executor and the other resources the services release on shutdown. */
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.nlsql.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Corpus plus a wired pipeline over an in-memory schema of {@code schemaWidth}
+ * columns per table.
+ */
+public class PipelineState extends CorpusState {
+
+    @Param({"8", "32", "128"})
+    public int schemaWidth;
+
+    public Pipeline pipeline;
+
+    @Setup
+    public void wirePipeline() {
+        pipeline = new Pipeline(schemaWidth);
+    }
+
+    @TearDown
+    public void closePipeline() {
+        pipeline.close();
+    }
+}
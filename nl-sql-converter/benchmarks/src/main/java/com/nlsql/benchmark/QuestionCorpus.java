@@ -0,0 +1,86 @@
+package com.nlsql.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible corpus of natural-language questions. The same seed always yields the same
+ * questions, mixing the phrasings the parser recognises (aliases, filters, grouping,
+ * ordering, limits) with noise words and tables it does not know.
+ */
+public final class QuestionCorpus {
+
+    public static final long DEFAULT_SEED = 0x5EEDL;
+    public static final int DEFAULT_SIZE = 4096;
+
+    private static final String[] SELECT_VERBS = {"show all", "list", "get", "find", "display", "show me the", "select"};
+    private static final String[] COUNT_VERBS = {"count", "how many", "number of", "count all"};
+    private static final String[] TABLES = {
+        "employees", "staff", "workers", "people", "orders", "purchases", "products", "items",
+        "customers", "clients", "users", "departments"
+    };
+    private static final String[] COLUMNS = {
+        "names", "name and email", "emails", "salary", "full name and city", "age", "dept", "wage and age"
+    };
+    private static final String[] CITIES = {"Mumbai", "Delhi", "Bangalore", "Chennai", "Pune", "New York"};
+    private static final String[] DEPARTMENTS = {"Engineering", "Marketing", "HR", "Sales", "Finance"};
+    private static final String[] GROUPS = {"by department", "by dept", "by city", "by location"};
+    private static final String[] ORDERS = {"order by name", "sort by salary", "order by age", "sort by name"};
+    private static final String[] LIMITS = {"top", "first", "limit"};
+    private static final String[] NOISE = {"please", "quickly", "for the report", "right now", "from the database"};
+
+    private QuestionCorpus() {}
+
+    public static List<String> generate() {
+        return generate(DEFAULT_SEED, DEFAULT_SIZE);
+    }
+
+    public static List<String> generate(long seed, int size) {
+        Random random = new Random(seed);
+        List<String> questions = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            StringBuilder question = new StringBuilder();
+            boolean count = random.nextInt(4) == 0;
+
+            if (random.nextInt(8) == 0) {
+                question.append(pick(random, NOISE)).append(' ');
+            }
+            question.append(pick(random, count ? COUNT_VERBS : SELECT_VERBS)).append(' ');
+
+            if (!count && random.nextInt(3) == 0) {
+                question.append(pick(random, COLUMNS)).append(" of ");
+            }
+            if (!count && random.nextInt(5) == 0) {
+                question.append(pick(random, LIMITS)).append(' ').append(1 + random.nextInt(50)).append(' ');
+            }
+            question.append(pick(random, TABLES));
+
+            switch (random.nextInt(6)) {
+                case 0 -> question.append(" in ").append(pick(random, CITIES));
+                case 1 -> question.append(" from ").append(pick(random, CITIES));
+                case 2 -> question.append(" in department ").append(pick(random, DEPARTMENTS));
+                case 3 -> question.append(" aged over ").append(20 + random.nextInt(40));
+                default -> { }
+            }
+            if (random.nextInt(4) == 0) {
+                question.append(' ').append(pick(random, GROUPS));
+            }
+            if (!count && random.nextInt(4) == 0) {
+                question.append(' ').append(pick(random, ORDERS));
+            }
+            if (random.nextInt(8) == 0) {
+                question.append(' ').append(pick(random, NOISE));
+            }
+
+            questions.add(question.toString());
+        }
+
+        return questions;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
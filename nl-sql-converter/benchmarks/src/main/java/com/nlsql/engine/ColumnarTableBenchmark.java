@@ -0,0 +1,119 @@
+package com.nlsql.engine;
+
+import com.nlsql.model.ParsedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process evaluation of generated query shapes against a products-like snapshot, to set
+ * against a JDBC round trip for the same question.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarTableBenchmark {
+
+    private static final String[] CATEGORIES = {"Electronics", "Furniture", "Books", "Clothing"};
+    private static final int MAX_RESULTS = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private ColumnarTable table;
+    private ParsedQuery countByCategory;
+    private ParsedQuery countFiltered;
+    private ParsedQuery topByPrice;
+    private ParsedQuery filteredPage;
+
+    @Setup
+    public void loadSnapshot() {
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        columnTypes.put("id", "integer");
+        columnTypes.put("name", "character varying");
+        columnTypes.put("price", "numeric");
+        columnTypes.put("category", "character varying");
+        columnTypes.put("stock_quantity", "integer");
+        columnTypes.put("created_date", "date");
+
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("name", "Product " + i);
+            row.put("price", BigDecimal.valueOf(500 + (i * 31L) % 200_000, 2));
+            row.put("category", CATEGORIES[i % CATEGORIES.length]);
+            row.put("stock_quantity", i % 500);
+            row.put("created_date", Date.valueOf(LocalDate.of(2023, 1, 1).plusDays(i % 365)));
+            data.add(row);
+        }
+        table = ColumnarTable.fromRows("products", columnTypes, "id", data, 0, true);
+
+        countByCategory = query(ParsedQuery.QueryType.COUNT)
+            .groupBy("category")
+            .build();
+
+        countFiltered = query(ParsedQuery.QueryType.COUNT)
+            .condition("category", "Books")
+            .condition("stock_quantity", 42)
+            .build();
+
+        topByPrice = query(ParsedQuery.QueryType.SELECT)
+            .column("name")
+            .column("price")
+            .orderBy("price")
+            .orderDirection("DESC")
+            .limit(10)
+            .build();
+
+        filteredPage = query(ParsedQuery.QueryType.SELECT)
+            .condition("stock_quantity", 7)
+            .build();
+    }
+
+    private static ParsedQuery.Builder query(ParsedQuery.QueryType type) {
+        return ParsedQuery.builder()
+            .queryType(type)
+            .tableName("products");
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> countGroupBy() {
+        return table.execute(countByCategory, MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> countWithFilters() {
+        return table.execute(countFiltered, MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> orderByLimit() {
+        return table.execute(topByPrice, MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> filteredSelect() {
+        return table.execute(filteredPage, MAX_RESULTS);
+    }
+}
@@ -0,0 +1,30 @@
+package com.nlsql.service;
+
+import com.nlsql.benchmark.PipelineState;
+import com.nlsql.model.QueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@code processQuery}: parse, map, generate, validate and "execute" against the
+ * in-memory schema.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Benchmark
+    public QueryResponse processQuery(PipelineState state) {
+        return state.pipeline.converterService.processQuery(state.nextQuestion());
+    }
+}
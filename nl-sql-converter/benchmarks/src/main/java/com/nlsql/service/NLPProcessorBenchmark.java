@@ -0,0 +1,33 @@
+package com.nlsql.service;
+
+import com.nlsql.benchmark.CorpusState;
+import com.nlsql.benchmark.Pipeline;
+import com.nlsql.model.ParsedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NLPProcessorBenchmark {
+
+    // Wired with the value dictionary over the narrowest in-memory schema
+    private final NLPProcessorService nlpProcessorService = new Pipeline(8).nlpProcessorService;
+
+    @Benchmark
+    public ParsedQuery parseQuery(CorpusState corpus) {
+        return nlpProcessorService.parseQuery(corpus.nextQuestion());
+    }
+}
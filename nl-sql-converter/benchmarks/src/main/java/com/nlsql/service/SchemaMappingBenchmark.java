@@ -0,0 +1,56 @@
+package com.nlsql.service;
+
+import com.nlsql.benchmark.PipelineState;
+import com.nlsql.model.ParsedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaMappingBenchmark {
+
+    @State(Scope.Thread)
+    public static class ParsedCorpus extends PipelineState {
+
+        ParsedQuery[] parsed;
+
+        @Setup
+        public void parseCorpus() {
+            parsed = new ParsedQuery[questions.size()];
+            for (int i = 0; i < parsed.length; i++) {
+                parsed[i] = pipeline.nlpProcessorService.parseQuery(questions.get(i));
+            }
+        }
+
+        ParsedQuery next() {
+            return parsed[nextIndex()];
+        }
+    }
+
+    /**
+     * Maps pre-parsed queries. Parsed queries are immutable, so every call resolves the names
+     * the parser produced, as a request does. Questions about tables the schema lacks take the
+     * failure path with its suggestions every time.
+     */
+    @Benchmark
+    public Object mapToSchema(ParsedCorpus corpus) {
+        try {
+            return corpus.pipeline.databaseSchemaService.mapToSchema(corpus.next());
+        } catch (TableNotFoundException e) {
+            return e.getSuggestions();
+        }
+    }
+}
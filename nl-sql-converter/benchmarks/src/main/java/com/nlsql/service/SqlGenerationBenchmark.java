@@ -0,0 +1,56 @@
+package com.nlsql.service;
+
+import com.nlsql.benchmark.PipelineState;
+import com.nlsql.model.ParsedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlGenerationBenchmark {
+
+    @State(Scope.Thread)
+    public static class MappedCorpus extends PipelineState {
+
+        ParsedQuery[] mapped;
+
+        @Setup
+        public void mapCorpus() {
+            // Questions about tables the schema lacks never reach SQL generation
+            List<ParsedQuery> resolved = new ArrayList<>(questions.size());
+            for (String question : questions) {
+                try {
+                    ParsedQuery parsed = pipeline.nlpProcessorService.parseQuery(question);
+                    resolved.add(pipeline.databaseSchemaService.mapToSchema(parsed));
+                } catch (TableNotFoundException e) {
+                    // The failure path is measured by SchemaMappingBenchmark
+                }
+            }
+            mapped = resolved.toArray(new ParsedQuery[0]);
+        }
+
+        ParsedQuery next() {
+            return mapped[nextIndex() % mapped.length];
+        }
+    }
+
+    @Benchmark
+    public String generateSQL(MappedCorpus corpus) {
+        return corpus.pipeline.converterService.generateSQL(corpus.next());
+    }
+}
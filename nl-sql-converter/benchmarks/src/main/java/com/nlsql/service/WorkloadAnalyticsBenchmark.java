@@ -0,0 +1,51 @@
+package com.nlsql.service;
+
+import com.nlsql.benchmark.PipelineState;
+import com.nlsql.model.QueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-query cost of workload recording: fingerprinting the SQL of a corpus question, counting
+ * it in the sketch and updating its tracked statistics.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkloadAnalyticsBenchmark {
+
+    @State(Scope.Thread)
+    public static class AnsweredCorpus extends PipelineState {
+
+        QueryResponse[] responses;
+
+        @Setup
+        public void translateCorpus() {
+            responses = new QueryResponse[questions.size()];
+            for (int i = 0; i < responses.length; i++) {
+                responses[i] = new QueryResponse(pipeline.converterService.translate(questions.get(i)), null);
+            }
+        }
+
+        QueryResponse next() {
+            return responses[nextIndex()];
+        }
+    }
+
+    @Benchmark
+    public void record(AnsweredCorpus corpus) {
+        corpus.pipeline.workloadAnalyticsService.record(corpus.next(), 1_000_000L);
+    }
+}
@@ -0,0 +1,42 @@
+package com.nlsql.util;
+
+import com.nlsql.benchmark.CorpusState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+    @Benchmark
+    public String normalize(CorpusState corpus) {
+        return StringUtils.normalize(corpus.nextQuestion());
+    }
+
+    @Benchmark
+    public List<String> tokenize(CorpusState corpus) {
+        return StringUtils.tokenize(corpus.nextQuestion());
+    }
+
+    @Benchmark
+    public String removeSpecialCharacters(CorpusState corpus) {
+        return StringUtils.removeSpecialCharacters(corpus.nextQuestion());
+    }
+
+    /** Question against the longest init.sql table name, as a fuzzy table match would. */
+    @Benchmark
+    public double calculateSimilarity(CorpusState corpus) {
+        return StringUtils.calculateSimilarity(corpus.nextQuestion(), "departments");
+    }
+}
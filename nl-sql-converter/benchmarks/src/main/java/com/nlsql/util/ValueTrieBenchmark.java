@@ -0,0 +1,61 @@
+package com.nlsql.util;
+
+import com.nlsql.benchmark.CorpusState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Literal recognition over corpus questions: one {@code findAll} pass per lookup against a
+ * dictionary holding the sample-data values plus {@code values} synthetic ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueTrieBenchmark {
+
+    private static final String[] SAMPLE_VALUES = {
+        "Mumbai", "Delhi", "Bangalore", "Chennai", "Pune", "Hyderabad", "New York",
+        "Engineering", "Marketing", "HR", "Sales", "Finance",
+        "pending", "shipped", "completed", "cancelled",
+        "Electronics", "Furniture", "Books", "Clothing"
+    };
+
+    @Param({"100", "10000", "50000"})
+    public int values;
+
+    private ValueTrie<String> trie;
+
+    @Setup
+    public void buildTrie() {
+        ValueTrie.Builder<String> builder = ValueTrie.builder();
+        for (String value : SAMPLE_VALUES) {
+            builder.add(value, value);
+        }
+        for (int i = 0; i < values; i++) {
+            String value = "value " + Integer.toString(i, 36);
+            builder.add(value, value);
+        }
+        trie = builder.build();
+    }
+
+    @Benchmark
+    public List<ValueTrie.Match<String>> findAll(CorpusState corpus) {
+        return trie.findAll(corpus.nextQuestion().toLowerCase(Locale.ROOT));
+    }
+}
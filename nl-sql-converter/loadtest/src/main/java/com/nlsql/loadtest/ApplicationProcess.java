@@ -0,0 +1,94 @@
+package com.nlsql.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the packaged application as a child process, the way it is deployed, pointed at the
+ * load-test database. Output goes to a log file so it does not compete with the report.
+ */
+public class ApplicationProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Process process;
+    private final String baseUrl;
+
+    private ApplicationProcess(Process process, String baseUrl) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+    }
+
+    public static ApplicationProcess start(Path jar, int port, String jdbcUrl, String user, String password,
+                                           String profile, Path logFile) throws IOException, InterruptedException {
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException(jar + " not found; run 'mvn package' in nl-sql-converter first");
+        }
+        Files.createDirectories(logFile.getParent());
+
+        List<String> command = new ArrayList<>(List.of(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-jar", jar.toString(),
+            "--server.port=" + port,
+            "--spring.datasource.url=" + jdbcUrl,
+            "--spring.datasource.username=" + user,
+            "--spring.datasource.password=" + password,
+            // Per-request DEBUG logging would dominate the measurement
+            "--logging.level.com.nlsql=WARN",
+            // All load comes from one client; a per-client rate limit would cap the offered rate
+            "--nlsql.admission.rate-limit.requests-per-second=0"));
+        if (profile != null) {
+            command.add("--spring.profiles.active=" + profile);
+            // The reactive profile reaches the same database over R2DBC
+            command.add("--nlsql.reactive.url=" + jdbcUrl.replaceFirst("^jdbc:", "r2dbc:"));
+        }
+
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(logFile.toFile())
+            .start();
+
+        ApplicationProcess application = new ApplicationProcess(process, "http://localhost:" + port + "/api");
+        application.awaitHealthy();
+        return application;
+    }
+
+    private void awaitHealthy() throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/query/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Application did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+}
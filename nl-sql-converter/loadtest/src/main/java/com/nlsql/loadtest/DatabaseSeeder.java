@@ -0,0 +1,115 @@
+package com.nlsql.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads init.sql and scales the sample tables up with server-side generate_series inserts,
+ * so millions of rows cost seconds rather than a client round trip per row.
+ */
+public class DatabaseSeeder {
+
+    private static final String[] GENERATORS = {
+        """
+        INSERT INTO employees (name, email, city, department, salary, age, hire_date, is_active)
+        SELECT 'Employee ' || g,
+               'employee' || g || '@company.com',
+               (ARRAY['Mumbai', 'Delhi', 'Bangalore', 'Chennai', 'Pune', 'Hyderabad'])[1 + g % 6],
+               (ARRAY['Engineering', 'Marketing', 'HR', 'Sales'])[1 + g % 4],
+               40000 + (g::bigint * 7919) % 60000,
+               22 + g % 40,
+               DATE '2015-01-01' + (g % 3000),
+               g % 10 <> 0
+        FROM generate_series(1, ?::int) AS g
+        """,
+        """
+        INSERT INTO products (name, price, category, stock_quantity)
+        SELECT 'Product ' || g,
+               5 + (g * 31) % 2000,
+               (ARRAY['Electronics', 'Furniture', 'Books', 'Clothing'])[1 + g % 4],
+               g % 500
+        FROM generate_series(1, GREATEST(?::int / 100, 1)) AS g
+        """,
+        """
+        INSERT INTO orders (customer_id, product_id, quantity, total_amount, order_date, status)
+        SELECT 100 + g % 50000,
+               1 + g % 1000,
+               1 + g % 5,
+               10 + (g * 13) % 5000,
+               DATE '2022-01-01' + (g % 1000),
+               (ARRAY['pending', 'shipped', 'completed', 'cancelled'])[1 + g % 4]
+        FROM generate_series(1, ?::int) AS g
+        """
+    };
+
+    private final Connection connection;
+
+    public DatabaseSeeder(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void seed(Path initSql, long rows) throws IOException, SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // init.sql grants to the docker-compose role; make sure it exists
+            statement.execute("""
+                DO $$ BEGIN
+                    CREATE ROLE nlsql_user LOGIN PASSWORD 'nlsql_password';
+                EXCEPTION WHEN duplicate_object THEN NULL;
+                END $$
+                """);
+
+            for (String sql : splitStatements(Files.readString(initSql))) {
+                statement.execute(sql);
+            }
+        }
+        log("Loaded " + initSql);
+
+        for (String generator : GENERATORS) {
+            long start = System.nanoTime();
+            try (PreparedStatement statement = connection.prepareStatement(generator)) {
+                statement.setLong(1, rows);
+                int inserted = statement.executeUpdate();
+                log(String.format("Inserted %,d rows into %s in %.1f s", inserted, tableOf(generator),
+                    (System.nanoTime() - start) / 1e9));
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    /** Splits a plain DDL/DML script on semicolons, dropping comment lines. */
+    static List<String> splitStatements(String script) {
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (String sql : withoutComments.toString().split(";")) {
+            if (!sql.isBlank()) {
+                statements.add(sql.trim());
+            }
+        }
+        return statements;
+    }
+
+    private static String tableOf(String insert) {
+        String afterInto = insert.substring(insert.indexOf("INTO ") + 5);
+        return afterInto.substring(0, afterInto.indexOf(' '));
+    }
+
+    private static void log(String message) {
+        System.out.println("[seed] " + message);
+    }
+}
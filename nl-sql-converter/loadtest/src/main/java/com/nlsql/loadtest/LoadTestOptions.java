@@ -0,0 +1,88 @@
+package com.nlsql.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+public class LoadTestOptions {
+
+    /** Employees (and orders) generated on top of init.sql. */
+    long rows = 1_000_000;
+    /** Target arrival rates in requests per second, run in order for every scenario. */
+    List<Integer> rates = List.of(500, 1000, 2500, 5000);
+    int durationSeconds = 30;
+    int warmupSeconds = 10;
+    List<String> scenarios = List.of("count", "filtered", "groupby");
+    /** Upper bound on outstanding requests; arrivals beyond it are counted as dropped. */
+    int maxInFlight = 20_000;
+
+    Path jar = Path.of("../target/nl-sql-converter-1.0.0.jar");
+    Path initSql = Path.of("../init.sql");
+    Path resultsDir = Path.of("target/loadtest-results");
+    int appPort = 18080;
+
+    /** Existing database to use instead of the embedded one. */
+    String jdbcUrl;
+    String jdbcUser = "postgres";
+    String jdbcPassword = "";
+    /** Whether to run init.sql and the generator; defaults to true only for the embedded database. */
+    Boolean seed;
+
+    /** Already running application to target instead of starting the jar. */
+    String appUrl;
+    /** Spring profile to start the jar with, e.g. "reactive" for the WebFlux + R2DBC stack. */
+    String profile;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            switch (entry.getKey()) {
+                case "rows" -> options.rows = Long.parseLong(value);
+                case "rates" -> options.rates = parseInts(value);
+                case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "scenarios" -> options.scenarios = Arrays.asList(value.split(","));
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "jar" -> options.jar = Path.of(value);
+                case "init-sql" -> options.initSql = Path.of(value);
+                case "results" -> options.resultsDir = Path.of(value);
+                case "port" -> options.appPort = Integer.parseInt(value);
+                case "jdbc-url" -> options.jdbcUrl = value;
+                case "jdbc-user" -> options.jdbcUser = value;
+                case "jdbc-password" -> options.jdbcPassword = value;
+                case "seed" -> options.seed = Boolean.parseBoolean(value);
+                case "app-url" -> options.appUrl = value;
+                case "profile" -> options.profile = value;
+                default -> throw new IllegalArgumentException("Unknown option --" + entry.getKey());
+            }
+        }
+        if (options.seed == null) {
+            options.seed = options.jdbcUrl == null;
+        }
+        return options;
+    }
+
+    private static List<Integer> parseInts(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String part : value.split(",")) {
+            result.add(Integer.parseInt(part.trim()));
+        }
+        return result;
+    }
+}
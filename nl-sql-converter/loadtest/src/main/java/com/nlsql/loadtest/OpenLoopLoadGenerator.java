@@ -0,0 +1,145 @@
+package com.nlsql.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop generator: requests are scheduled at a fixed arrival rate regardless of how fast
+ * responses come back, and latency is measured from each request's <em>intended</em> start
+ * time. A stalled server therefore shows up as queueing delay in the percentiles instead of
+ * silently lowering the offered load (coordinated omission). Service time, measured from the
+ * actual send, is recorded alongside for comparison.
+ *
+ * Requests dropped because {@code maxInFlight} were outstanding, and requests still unanswered
+ * when the drain times out, are recorded too, at the time elapsed from their intended start to
+ * the end of the run. Their true latency is at least that, so leaving them out would flatter the
+ * tail exactly when the server falls behind.
+ */
+public class OpenLoopLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient client;
+    private final URI queryUri;
+    private final int maxInFlight;
+
+    public OpenLoopLoadGenerator(String baseUrl, int maxInFlight) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.queryUri = URI.create(baseUrl + "/query");
+        this.maxInFlight = maxInFlight;
+    }
+
+    public ScenarioResult run(Scenario scenario, int ratePerSecond, Duration warmup, Duration duration)
+            throws InterruptedException {
+        Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicInteger inFlight = new AtomicInteger();
+        long[] droppedIntended = new long[64];
+        int dropped = 0;
+        // Measured requests not yet answered, by sequence: intended start and actual send
+        Map<Long, long[]> outstanding = new ConcurrentHashMap<>();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long sequence = 0; ; sequence++) {
+            long intended = start + sequence * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+
+            boolean measured = intended >= measureFrom;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                if (measured) {
+                    if (dropped == droppedIntended.length) {
+                        droppedIntended = Arrays.copyOf(droppedIntended, dropped * 2);
+                    }
+                    droppedIntended[dropped++] = intended;
+                }
+                continue;
+            }
+
+            long sent = System.nanoTime();
+            Long key = sequence;
+            if (measured) {
+                outstanding.put(key, new long[] {intended, sent});
+            }
+            client.sendAsync(request(scenario.question(sequence)), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long completed = System.nanoTime();
+                    inFlight.decrementAndGet();
+                    // Already recorded as unfinished when the drain timed out
+                    if (!measured || outstanding.remove(key) == null) {
+                        return;
+                    }
+                    responseTime.recordValue(Math.min(completed - intended, HIGHEST_TRACKABLE_NANOS));
+                    serviceTime.recordValue(Math.min(completed - sent, HIGHEST_TRACKABLE_NANOS));
+                    if (error == null && isSuccess(response)) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                });
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        long finished = System.nanoTime();
+        for (int i = 0; i < dropped; i++) {
+            responseTime.recordValue(Math.min(finished - droppedIntended[i], HIGHEST_TRACKABLE_NANOS));
+        }
+        long unfinished = 0;
+        for (Long key : outstanding.keySet()) {
+            long[] times = outstanding.remove(key);
+            if (times != null) {
+                responseTime.recordValue(Math.min(finished - times[0], HIGHEST_TRACKABLE_NANOS));
+                serviceTime.recordValue(Math.min(finished - times[1], HIGHEST_TRACKABLE_NANOS));
+                unfinished++;
+            }
+        }
+
+        return new ScenarioResult(scenario.name(), ratePerSecond, duration, succeeded.get(), failed.get(),
+            dropped, unfinished, responseTime, serviceTime);
+    }
+
+    private HttpRequest request(String question) {
+        return HttpRequest.newBuilder(queryUri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"query\": \"" + question + "\"}"))
+            .build();
+    }
+
+    /** The service reports translation and execution failures in the body with HTTP 200. */
+    private static boolean isSuccess(HttpResponse<String> response) {
+        return response.statusCode() == 200 && !response.body().contains("\"error\":\"");
+    }
+}
@@ -0,0 +1,41 @@
+package com.nlsql.loadtest;
+
+import java.util.List;
+
+/**
+ * A named family of questions that translate to the same SQL shape.
+ */
+public record Scenario(String name, List<String> questions) {
+
+    public static final Scenario COUNT = new Scenario("count", List.of(
+        "how many employees",
+        "count employees",
+        "number of orders",
+        "count all products"));
+
+    public static final Scenario FILTERED = new Scenario("filtered", List.of(
+        "show employees in Mumbai",
+        "list staff from Delhi",
+        "show employees in department Engineering",
+        "find workers in Bangalore",
+        "get employees aged over 40"));
+
+    public static final Scenario GROUP_BY = new Scenario("groupby", List.of(
+        "count employees by department",
+        "count employees by city",
+        "how many staff by dept",
+        "number of workers by location"));
+
+    public static Scenario named(String name) {
+        return switch (name) {
+            case "count" -> COUNT;
+            case "filtered" -> FILTERED;
+            case "groupby" -> GROUP_BY;
+            default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+        };
+    }
+
+    public String question(long sequence) {
+        return questions.get((int) (sequence % questions.size()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.nlsql.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outcome of one scenario at one arrival rate. Histograms hold nanoseconds, and include dropped
+ * and unfinished requests at the time the run gave up on them.
+ */
+public record ScenarioResult(String scenario, int targetRate, Duration duration, long succeeded, long failed,
+                             long dropped, long unfinished, Histogram responseTime, Histogram serviceTime) {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public static String header() {
+        return String.format("%-10s %8s %10s %8s %8s %10s %9s %9s %9s %9s %9s %12s",
+            "scenario", "target/s", "achieved/s", "errors", "dropped", "unfinished",
+            "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+    }
+
+    public double achievedThroughput() {
+        return (succeeded + failed) / (double) duration.toSeconds();
+    }
+
+    public String row() {
+        return String.format("%-10s %8d %10.1f %8d %8d %10d %9.2f %9.2f %9.2f %9.2f %9.2f %12.2f",
+            scenario, targetRate, achievedThroughput(), failed, dropped, unfinished,
+            millis(responseTime, 50.0), millis(responseTime, 90.0), millis(responseTime, 99.0),
+            millis(responseTime, 99.9), responseTime.getMaxValue() / NANOS_PER_MILLI,
+            millis(serviceTime, 99.0));
+    }
+
+    /** Writes the full response-time distribution in HdrHistogram's .hgrm format (milliseconds). */
+    public void writePercentiles(Path directory) throws FileNotFoundException {
+        Path file = directory.resolve(scenario + "-" + targetRate + ".hgrm");
+        try (PrintStream out = new PrintStream(file.toFile())) {
+            responseTime.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,103 @@
+#!/bin/bash
+
+# NL-SQL Converter JVM vs Native Comparison
+#
+# Compares the JVM build (target/nl-sql-converter-1.0.0.jar) against the GraalVM
+# native build (target/nl-sql-converter) on cold start and steady-state latency.
+#
+# Build both first:
+#   mvn package
+#   mvn -Pnative native:compile
+#
+# Usage: ./native-comparison.sh [startup-runs] [requests]
+#   LATENCY_PATH=/api/query/health   endpoint sampled for latency (GET)
+#   QUERY='show all employees'       when set, POST this query to /api/query instead
+#   PORT=8080
+
+set -e
+
+STARTUP_RUNS=${1:-5}
+REQUESTS=${2:-500}
+PORT=${PORT:-8080}
+LATENCY_PATH=${LATENCY_PATH:-/api/query/health}
+JVM_CMD="java -jar target/nl-sql-converter-1.0.0.jar --server.port=${PORT}"
+NATIVE_CMD="target/nl-sql-converter --server.port=${PORT}"
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+print_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+request() {
+    if [ -n "$QUERY" ]; then
+        curl -s -o /dev/null -w "%{time_total}\n" -X POST "http://localhost:${PORT}/api/query" \
+            -H "Content-Type: application/json" -d "{\"query\": \"${QUERY}\"}"
+    else
+        curl -s -o /dev/null -w "%{time_total}\n" "http://localhost:${PORT}${LATENCY_PATH}"
+    fi
+}
+
+# Starts the application once and prints first-request, warm p50/p99/max latency in ms
+measure_latency() {
+    local cmd=$1 pid samples
+
+    $cmd > /dev/null 2>&1 &
+    pid=$!
+    for i in {1..1200}; do
+        curl -s -o /dev/null "http://localhost:${PORT}/api/query/health" && break
+        sleep 0.05
+    done
+
+    local first
+    first=$(request)
+    samples=$(for i in $(seq 1 "$REQUESTS"); do request; done | sort -n)
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+
+    echo "$samples" | awk -v first="$first" '
+        { v[NR] = $1 * 1000 }
+        END {
+            p50 = v[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+            p99 = v[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+            printf "first %.1f ms, p50 %.1f ms, p99 %.1f ms, max %.1f ms\n", first * 1000, p50, p99, v[NR]
+        }'
+}
+
+compare() {
+    local name=$1 cmd=$2
+
+    echo ""
+    print_status "== $name =="
+    CMD="$cmd" PORT="$PORT" ./startup-benchmark.sh "$STARTUP_RUNS" | tail -2
+    print_success "latency over $REQUESTS requests: $(measure_latency "$cmd")"
+}
+
+main() {
+    if [ ! -f target/nl-sql-converter-1.0.0.jar ]; then
+        print_error "JVM build missing. Run 'mvn package' first."
+        exit 1
+    fi
+    if [ ! -x target/nl-sql-converter ]; then
+        print_error "Native build missing. Run 'mvn -Pnative native:compile' first."
+        exit 1
+    fi
+
+    compare "JVM" "$JVM_CMD"
+    compare "Native" "$NATIVE_CMD"
+}
+
+main "$@"
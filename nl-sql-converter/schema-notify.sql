@@ -0,0 +1,60 @@
+-- Schema change notifications for NL-SQL Converter
+-- After DDL on a table, view or index the event triggers NOTIFY the nlsql_schema_change channel
+-- with {"command", "schema", "table"}, and the converter reloads the metadata of that table only.
+-- Event triggers can only be created by a superuser; run this once in every database queried.
+
+CREATE OR REPLACE FUNCTION nlsql_notify_ddl() RETURNS event_trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    command record;
+    relation oid;
+BEGIN
+    FOR command IN SELECT * FROM pg_event_trigger_ddl_commands() LOOP
+        CONTINUE WHEN command.classid <> 'pg_class'::regclass OR command.schema_name LIKE 'pg\_temp%';
+        
+        -- An index is reported under its own name, but it is its table that changed
+        relation := command.objid;
+        IF command.object_type = 'index' THEN
+            SELECT indrelid INTO relation FROM pg_index WHERE indexrelid = command.objid;
+        END IF;
+        
+        PERFORM pg_notify('nlsql_schema_change', json_build_object(
+            'command', command.command_tag, 'schema', n.nspname, 'table', c.relname)::text)
+        FROM pg_class c
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE c.oid = relation AND c.relkind IN ('r', 'p', 'v', 'm', 'f');
+    END LOOP;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION nlsql_notify_drop() RETURNS event_trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    dropped record;
+BEGIN
+    FOR dropped IN SELECT * FROM pg_event_trigger_dropped_objects() LOOP
+        CONTINUE WHEN dropped.is_temporary OR NOT dropped.original;
+        
+        IF dropped.object_type IN ('table', 'view', 'materialized view', 'foreign table') THEN
+            PERFORM pg_notify('nlsql_schema_change', json_build_object(
+                'command', tg_tag, 'schema', dropped.schema_name, 'table', dropped.object_name)::text);
+        ELSIF dropped.object_type = 'index' THEN
+            -- The table of a dropped index can no longer be looked up, so the whole schema is stale
+            PERFORM pg_notify('nlsql_schema_change', json_build_object(
+                'command', tg_tag, 'schema', dropped.schema_name, 'table', NULL)::text);
+        END IF;
+    END LOOP;
+END;
+$$;
+
+DROP EVENT TRIGGER IF EXISTS nlsql_ddl_notify;
+CREATE EVENT TRIGGER nlsql_ddl_notify ON ddl_command_end
+    WHEN TAG IN ('CREATE TABLE', 'CREATE TABLE AS', 'SELECT INTO', 'ALTER TABLE', 'CREATE VIEW', 'ALTER VIEW',
+                 'CREATE MATERIALIZED VIEW', 'ALTER MATERIALIZED VIEW', 'CREATE FOREIGN TABLE',
+                 'ALTER FOREIGN TABLE', 'CREATE INDEX', 'ALTER INDEX')
+    EXECUTE FUNCTION nlsql_notify_ddl();
+
+DROP EVENT TRIGGER IF EXISTS nlsql_drop_notify;
+CREATE EVENT TRIGGER nlsql_drop_notify ON sql_drop
+    WHEN TAG IN ('DROP TABLE', 'DROP VIEW', 'DROP MATERIALIZED VIEW', 'DROP FOREIGN TABLE', 'DROP INDEX')
+    EXECUTE FUNCTION nlsql_notify_drop();
\ No newline at end of file
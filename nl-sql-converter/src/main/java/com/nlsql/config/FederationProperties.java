@@ -0,0 +1,107 @@
+package com.nlsql.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Databases questions can be answered from, under {@code nlsql.federation}. The primary source
+ * is always {@code spring.datasource}; {@code sources} adds more, each with its own pool. When
+ * the same table name exists in several sources, the one with the lowest priority wins.
+ */
+@Component
+@ConfigurationProperties(prefix = "nlsql.federation")
+public class FederationProperties {
+    
+    private SourceSettings primary = new SourceSettings();
+    private List<Source> sources = new ArrayList<>();
+    
+    public SourceSettings getPrimary() {
+        return primary;
+    }
+    
+    public void setPrimary(SourceSettings primary) {
+        this.primary = primary;
+    }
+    
+    public List<Source> getSources() {
+        return sources;
+    }
+    
+    public void setSources(List<Source> sources) {
+        this.sources = sources;
+    }
+    
+    /** Settings every source has, including the primary one. */
+    public static class SourceSettings {
+        private String name = "primary";
+        private List<String> schemas = new ArrayList<>(List.of("public"));
+        private int priority = 0;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public List<String> getSchemas() {
+            return schemas;
+        }
+        
+        public void setSchemas(List<String> schemas) {
+            this.schemas = schemas;
+        }
+        
+        public int getPriority() {
+            return priority;
+        }
+        
+        public void setPriority(int priority) {
+            this.priority = priority;
+        }
+    }
+    
+    /** A database besides the primary one, with its own connection pool. */
+    public static class Source extends SourceSettings {
+        private String url;
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+        
+        public String getUrl() {
+            return url;
+        }
+        
+        public void setUrl(String url) {
+            this.url = url;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+        
+        public void setUsername(String username) {
+            this.username = username;
+        }
+        
+        public String getPassword() {
+            return password;
+        }
+        
+        public void setPassword(String password) {
+            this.password = password;
+        }
+        
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+        
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+    }
+}
\ No newline at end of file
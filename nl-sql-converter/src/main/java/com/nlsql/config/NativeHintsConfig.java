@@ -0,0 +1,27 @@
+package com.nlsql.config;
+
+import com.nlsql.model.ApproximationInfo;
+import com.nlsql.model.BatchQueryRequest;
+import com.nlsql.model.QueryRequest;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.model.TableInfo;
+import com.nlsql.service.KeysetPaginationService;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the models Jackson binds reflectively so they survive GraalVM native-image
+ * closed-world analysis. No effect on the JVM build.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+    QueryRequest.class,
+    BatchQueryRequest.class,
+    QueryResponse.class,
+    ApproximationInfo.class,
+    TableInfo.class,
+    TableInfo.ColumnInfo.class,
+    KeysetPaginationService.Cursor.class
+})
+public class NativeHintsConfig {
+}
@@ -0,0 +1,12 @@
+package com.nlsql.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background work such as the aggregate summary refresh.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.nlsql.config;
+
+import com.nlsql.controller.AdmissionControlInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Servlet-stack request handling: admission control guards the query endpoint only, so health
+ * checks and actuator endpoints keep answering under overload. Batches are admitted per
+ * question by the controller and the converter instead.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private AdmissionControlInterceptor admissionControlInterceptor;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/query");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.nlsql.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.service.AdmissionControlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link AdmissionControlService} to query requests before they reach the controller,
+ * answering refused ones straight away with 429 or 503 and a Retry-After header. CORS
+ * preflights run no query, so they are neither charged nor refused, as on the reactive stack.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    
+    static final String API_KEY_HEADER = "X-API-Key";
+    
+    private static final String ADMISSION_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admission";
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        
+        AdmissionControlService.Admission admission =
+            admissionControlService.admit(request.getHeader(API_KEY_HEADER), request.getRemoteAddr());
+        
+        switch (admission.getStatus()) {
+            case RATE_LIMITED:
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, admission.getRetryAfterSeconds(), "Rate limit exceeded");
+                return false;
+            case OVERLOADED:
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is at its concurrency limit");
+                return false;
+            default:
+                request.setAttribute(ADMISSION_ATTRIBUTE, admission);
+                return true;
+        }
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object admission = request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission != null) {
+            admissionControlService.release((AdmissionControlService.Admission) admission);
+        }
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws Exception {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new QueryResponse(message));
+    }
+}
\ No newline at end of file
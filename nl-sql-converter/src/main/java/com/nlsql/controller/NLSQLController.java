@@ -1,16 +1,25 @@
 package com.nlsql.controller;
 
+import com.nlsql.model.BatchQueryRequest;
 import com.nlsql.model.QueryRequest;
 import com.nlsql.model.QueryResponse;
+import com.nlsql.service.AdmissionControlService;
 import com.nlsql.service.NLSQLConverterService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
+@Profile("!reactive")
 @RequestMapping("/query")
 @CrossOrigin(origins = "*")
 public class NLSQLController {
@@ -20,13 +29,18 @@ public class NLSQLController {
     @Autowired
     private NLSQLConverterService nlsqlConverterService;
     
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
     @PostMapping
     public ResponseEntity<QueryResponse> executeQuery(@Valid @RequestBody QueryRequest request) {
-        logger.info("Received query: {}", request.getQuery());
+        logger.info("Received query: {}", request.getCursor() != null ? "(next page)" : request.getQuery());
         
         try {
             long startTime = System.currentTimeMillis();
-            QueryResponse response = nlsqlConverterService.processQuery(request.getQuery());
+            QueryResponse response = request.getCursor() != null && !request.getCursor().isBlank()
+                ? nlsqlConverterService.processPage(request.getCursor())
+                : nlsqlConverterService.processQuery(request.getQuery(), request.isApproximate());
             long endTime = System.currentTimeMillis();
             
             response.setExecutionTimeMs(endTime - startTime);
@@ -40,8 +54,39 @@ public class NLSQLController {
         }
     }
     
+    /**
+     * Not behind the admission interceptor, which would charge the whole batch as one request:
+     * the batch takes one rate-limit token per question here, and each question a concurrency
+     * slot of its own while it runs.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> executeBatch(@Valid @RequestBody BatchQueryRequest request, HttpServletRequest httpRequest) {
+        logger.info("Received batch of {} queries", request.getQueries().size());
+        
+        AdmissionControlService.Admission admission = admissionControlService.admitBatch(
+            httpRequest.getHeader(AdmissionControlInterceptor.API_KEY_HEADER), httpRequest.getRemoteAddr(),
+            request.getQueries().size());
+        if (admission.getStatus() == AdmissionControlService.Status.RATE_LIMITED) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()))
+                .body(new QueryResponse("Rate limit exceeded"));
+        }
+        
+        long startTime = System.currentTimeMillis();
+        List<QueryResponse> responses = nlsqlConverterService.processBatch(request.getQueries(), request.isApproximate());
+        logger.info("Batch processed in {} ms", System.currentTimeMillis() - startTime);
+        
+        return ResponseEntity.ok(responses);
+    }
+    
+    // Liveness only: container health checks probe this, so saturation is reported, never failed on
     @GetMapping("/health")
     public ResponseEntity<String> health() {
+        if (admissionControlService.isSaturated()) {
+            return ResponseEntity.ok(String.format(
+                "NL-SQL Converter is running but saturated: %d of %d query slots in use",
+                admissionControlService.getInFlight(), admissionControlService.getLimit()));
+        }
         return ResponseEntity.ok("NL-SQL Converter is running");
     }
 }
\ No newline at end of file
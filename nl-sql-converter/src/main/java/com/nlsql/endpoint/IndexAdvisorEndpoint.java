@@ -0,0 +1,32 @@
+package com.nlsql.endpoint;
+
+import com.nlsql.service.IndexAdvisorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/indexadvisor}: ranked {@code CREATE INDEX} suggestions for the generated
+ * workload. Read-only with respect to the database; a DELETE only clears the collected usage.
+ */
+@Component
+@Endpoint(id = "indexadvisor")
+public class IndexAdvisorEndpoint {
+    
+    @Autowired
+    private IndexAdvisorService indexAdvisorService;
+    
+    @ReadOperation
+    public Map<String, Object> recommendations() {
+        return indexAdvisorService.report();
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        indexAdvisorService.reset();
+    }
+}
\ No newline at end of file
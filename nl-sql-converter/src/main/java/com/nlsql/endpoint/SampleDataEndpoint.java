@@ -0,0 +1,26 @@
+package com.nlsql.endpoint;
+
+import com.nlsql.service.SampleDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/sampledata}: a POST creates the sample employees table in the primary
+ * database and fills it if it is empty. Safe to repeat.
+ */
+@Component
+@Endpoint(id = "sampledata")
+public class SampleDataEndpoint {
+    
+    @Autowired
+    private SampleDataService sampleDataService;
+    
+    @WriteOperation
+    public Map<String, Object> seed() {
+        return sampleDataService.seed();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.nlsql.endpoint;
+
+import com.nlsql.service.WorkloadAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/workload}: the most frequent query shapes with their latency percentiles
+ * and error rates. {@code ?limit=n} returns only the top n. Read-only, since it is exposed by
+ * default and the index advisor ranks its candidates by these latencies.
+ */
+@Component
+@Endpoint(id = "workload")
+public class WorkloadEndpoint {
+    
+    @Autowired
+    private WorkloadAnalyticsService workloadAnalyticsService;
+    
+    @ReadOperation
+    public Map<String, Object> workload(@Nullable Integer limit) {
+        return workloadAnalyticsService.report(limit != null ? limit : 0);
+    }
+}
\ No newline at end of file
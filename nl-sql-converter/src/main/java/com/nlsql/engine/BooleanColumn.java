@@ -0,0 +1,68 @@
+package com.nlsql.engine;
+
+import com.nlsql.util.SqlLiterals;
+
+import java.util.BitSet;
+import java.util.List;
+
+final class BooleanColumn extends Column {
+    
+    private final BitSet values;
+    
+    BooleanColumn(String name, BitSet nulls, List<Object> source) {
+        super(name, nulls);
+        values = new BitSet(source.size());
+        for (int row = 0; row < source.size(); row++) {
+            if (Boolean.TRUE.equals(source.get(row))) {
+                values.set(row);
+            }
+        }
+    }
+    
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values.get(row);
+    }
+    
+    @Override
+    public int filterEquals(String literal, int[] selection, int count) {
+        Boolean target = SqlLiterals.parseBoolean(literal);
+        if (target == null) {
+            return -1;
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (values.get(row) == target && !isNull(row)) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    public int compareRows(int left, int right) {
+        return Boolean.compare(values.get(left), values.get(right));
+    }
+    
+    @Override
+    public int codeCardinality() {
+        return 3;
+    }
+    
+    @Override
+    public int code(int row) {
+        return isNull(row) ? 2 : (values.get(row) ? 1 : 0);
+    }
+    
+    @Override
+    public Object decode(int code) {
+        return code == 2 ? null : code == 1;
+    }
+    
+    @Override
+    public long estimatedBytes() {
+        return values.size() / 8 + nullBytes();
+    }
+}
\ No newline at end of file
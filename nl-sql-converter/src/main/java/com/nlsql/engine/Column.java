@@ -0,0 +1,122 @@
+package com.nlsql.engine;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * One column of a {@link ColumnarTable} snapshot, stored as a primitive array (or dictionary
+ * codes) plus a null bitmap. Values come back boxed as the same Java types the PostgreSQL JDBC
+ * driver returns, so in-memory results serialize exactly like database results.
+ */
+public abstract class Column {
+    
+    private static final Pattern ISO_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    
+    protected final String name;
+    
+    // Null when the column holds no NULLs, which lets the scan loops skip the check
+    protected final BitSet nulls;
+    
+    protected Column(String name, BitSet nulls) {
+        this.name = name;
+        this.nulls = nulls == null || nulls.isEmpty() ? null : nulls;
+    }
+    
+    /**
+     * Builds a column from JDBC values, or returns null for a type whose semantics the engine
+     * cannot reproduce exactly.
+     */
+    public static Column of(String name, String dataType, List<Object> values, boolean binaryCollation) {
+        BitSet nulls = new BitSet(values.size());
+        for (int row = 0; row < values.size(); row++) {
+            if (values.get(row) == null) {
+                nulls.set(row);
+            }
+        }
+        
+        switch (dataType.toLowerCase()) {
+            case "smallint":
+            case "integer":
+                return new IntColumn(name, nulls, values);
+            case "bigint":
+                return new LongColumn(name, nulls, values);
+            case "real":
+                return new DoubleColumn(name, nulls, values, true);
+            case "double precision":
+                return new DoubleColumn(name, nulls, values, false);
+            case "numeric":
+                return DecimalColumn.fits(values) ? new DecimalColumn(name, nulls, values) : null;
+            case "boolean":
+                return new BooleanColumn(name, nulls, values);
+            case "character varying":
+            case "text":
+                // Java orders strings by code point, which only matches a binary collation
+                return new DictionaryColumn(name, nulls, values, literal -> true, binaryCollation);
+            case "date":
+                return new DictionaryColumn(name, nulls, values, literal -> ISO_DATE.matcher(literal).matches(), true);
+            case "timestamp without time zone":
+                // Timestamp literals have too many spellings to compare as text
+                return new DictionaryColumn(name, nulls, values, literal -> false, true);
+            default:
+                return null;
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public boolean isNull(int row) {
+        return nulls != null && nulls.get(row);
+    }
+    
+    /** The value at {@code row} as the JDBC driver would return it; null for SQL NULL. */
+    public abstract Object get(int row);
+    
+    /**
+     * Compacts {@code selection[0..count)} to the rows equal to {@code literal}, with the
+     * literal coerced to the column type as PostgreSQL would. Returns the new count, or -1
+     * when the database would interpret the literal differently (or reject it).
+     */
+    public abstract int filterEquals(String literal, int[] selection, int count);
+    
+    /** Orders two non-null rows; false from {@link #isOrderable()} means this is unreliable. */
+    public abstract int compareRows(int left, int right);
+    
+    public boolean isOrderable() {
+        return true;
+    }
+    
+    /**
+     * Number of distinct group codes, NULL included, when values are dictionary-like and
+     * grouping can count into an array indexed by {@link #code(int)}; -1 otherwise.
+     */
+    public int codeCardinality() {
+        return -1;
+    }
+    
+    public int code(int row) {
+        throw new UnsupportedOperationException(name + " is not dictionary-encoded");
+    }
+    
+    /** The value a {@link #code(int)} stands for. */
+    public Object decode(int code) {
+        throw new UnsupportedOperationException(name + " is not dictionary-encoded");
+    }
+    
+    public abstract long estimatedBytes();
+    
+    protected long nullBytes() {
+        return nulls == null ? 0 : nulls.size() / 8;
+    }
+    
+    static BigDecimal parseNumber(String literal) {
+        try {
+            return new BigDecimal(literal.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
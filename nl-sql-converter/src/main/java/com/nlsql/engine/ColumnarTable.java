@@ -0,0 +1,378 @@
+package com.nlsql.engine;
+
+import com.nlsql.model.ParsedQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable columnar snapshot of one table, able to evaluate the query subset produced by
+ * {@code NLSQLConverterService.generateSQL}: SELECT or COUNT with equality filters, COUNT with
+ * GROUP BY, ORDER BY one column and LIMIT.
+ *
+ * Filters run as tight loops over a selection vector of row numbers, one column at a time.
+ * Anything whose result could differ from PostgreSQL's makes {@link #execute} return null so
+ * the caller runs the query against the database instead.
+ */
+public class ColumnarTable {
+    
+    // Largest dense counter array a GROUP BY may allocate before falling back to hashing
+    private static final int MAX_DENSE_GROUPS = 1 << 16;
+    
+    private final String tableName;
+    private final List<Column> columns;
+    private final Map<String, Column> columnsByName = new HashMap<>();
+    private final Column primaryKey;
+    private final int rowCount;
+    private final long version;
+    
+    public ColumnarTable(String tableName, List<Column> columns, String primaryKey, int rowCount, long version) {
+        this.tableName = tableName;
+        this.columns = List.copyOf(columns);
+        for (Column column : columns) {
+            columnsByName.put(column.getName().toLowerCase(), column);
+        }
+        this.primaryKey = primaryKey == null ? null : columnsByName.get(primaryKey.toLowerCase());
+        this.rowCount = rowCount;
+        this.version = version;
+    }
+    
+    /**
+     * Builds a snapshot from rows as returned by {@code JdbcTemplate.queryForList}, or returns
+     * null when any column has a type the engine cannot evaluate faithfully.
+     */
+    public static ColumnarTable fromRows(String tableName, Map<String, String> columnTypes, String primaryKey,
+                                         List<Map<String, Object>> rows, long version, boolean binaryCollation) {
+        List<Column> columns = new ArrayList<>(columnTypes.size());
+        for (Map.Entry<String, String> columnType : columnTypes.entrySet()) {
+            List<Object> values = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                values.add(row.get(columnType.getKey()));
+            }
+            
+            Column column = Column.of(columnType.getKey(), columnType.getValue(), values, binaryCollation);
+            if (column == null) {
+                return null;
+            }
+            columns.add(column);
+        }
+        return new ColumnarTable(tableName, columns, primaryKey, rows.size(), version);
+    }
+    
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public long estimatedBytes() {
+        return columns.stream().mapToLong(Column::estimatedBytes).sum();
+    }
+    
+    /**
+     * Evaluates a mapped query. {@code maxRows} is the row cap the database path applies to
+     * statements without an explicit LIMIT; larger unlimited results are left to the database,
+     * which pages them.
+     */
+    public List<Map<String, Object>> execute(ParsedQuery parsedQuery, int maxRows) {
+        int[] selection = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            selection[row] = row;
+        }
+        int count = rowCount;
+        
+        for (int i = 0; i < parsedQuery.getConditionCount(); i++) {
+            Column column = column(parsedQuery.getConditionColumn(i));
+            if (column == null) {
+                return null;
+            }
+            count = column.filterEquals(String.valueOf(parsedQuery.getConditionValue(i)), selection, count);
+            if (count < 0) {
+                return null;
+            }
+        }
+        
+        switch (parsedQuery.getQueryType()) {
+            case COUNT:
+                return count(parsedQuery, selection, count);
+            case SELECT:
+                return select(parsedQuery, selection, count, maxRows);
+            default:
+                return null;
+        }
+    }
+    
+    private List<Map<String, Object>> count(ParsedQuery parsedQuery, int[] selection, int count) {
+        // generateSQL has no ORDER BY form that is valid next to COUNT(*)
+        if (parsedQuery.getOrderBy() != null) {
+            return null;
+        }
+        int limit = parsedQuery.getLimit() == null ? Integer.MAX_VALUE : parsedQuery.getLimit();
+        
+        if (parsedQuery.getGroupByCount() == 0) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", (long) count);
+            return limit > 0 ? List.of(row) : List.of();
+        }
+        
+        Column[] groupColumns = new Column[parsedQuery.getGroupByCount()];
+        for (int i = 0; i < groupColumns.length; i++) {
+            groupColumns[i] = column(parsedQuery.getGroupByColumn(i));
+            if (groupColumns[i] == null) {
+                return null;
+            }
+        }
+        
+        Map<List<Object>, long[]> groups = denseGroupCounts(groupColumns, selection, count);
+        if (groups == null) {
+            groups = hashGroupCounts(groupColumns, selection, count);
+        }
+        
+        List<Map<String, Object>> results = new ArrayList<>(Math.min(groups.size(), limit));
+        for (Map.Entry<List<Object>, long[]> group : groups.entrySet()) {
+            if (results.size() >= limit) {
+                break;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int c = 0; c < groupColumns.length; c++) {
+                row.put(groupColumns[c].getName(), group.getKey().get(c));
+            }
+            row.put("count", group.getValue()[0]);
+            results.add(row);
+        }
+        return results;
+    }
+    
+    /**
+     * Counts groups into a flat array indexed by the combined dictionary codes of the group
+     * columns. Returns null when a column is not dictionary-encoded or the code space is large.
+     */
+    private static Map<List<Object>, long[]> denseGroupCounts(Column[] groupColumns, int[] selection, int count) {
+        int groupSpace = 1;
+        for (Column column : groupColumns) {
+            int cardinality = column.codeCardinality();
+            if (cardinality < 0 || (long) groupSpace * cardinality > MAX_DENSE_GROUPS) {
+                return null;
+            }
+            groupSpace *= cardinality;
+        }
+        
+        long[] counts = new long[groupSpace];
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            int slot = 0;
+            for (Column column : groupColumns) {
+                slot = slot * column.codeCardinality() + column.code(row);
+            }
+            counts[slot]++;
+        }
+        
+        Map<List<Object>, long[]> groups = new LinkedHashMap<>();
+        for (int slot = 0; slot < groupSpace; slot++) {
+            if (counts[slot] == 0) {
+                continue;
+            }
+            Object[] key = new Object[groupColumns.length];
+            int remainder = slot;
+            for (int c = groupColumns.length - 1; c >= 0; c--) {
+                int cardinality = groupColumns[c].codeCardinality();
+                key[c] = groupColumns[c].decode(remainder % cardinality);
+                remainder /= cardinality;
+            }
+            groups.put(Arrays.asList(key), new long[] {counts[slot]});
+        }
+        return groups;
+    }
+    
+    private static Map<List<Object>, long[]> hashGroupCounts(Column[] groupColumns, int[] selection, int count) {
+        Map<List<Object>, long[]> groups = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            Object[] key = new Object[groupColumns.length];
+            for (int c = 0; c < groupColumns.length; c++) {
+                key[c] = groupColumns[c].get(row);
+            }
+            groups.computeIfAbsent(Arrays.asList(key), k -> new long[1])[0]++;
+        }
+        return groups;
+    }
+    
+    private List<Map<String, Object>> select(ParsedQuery parsedQuery, int[] selection, int count, int maxRows) {
+        // "SELECT * ... GROUP BY" is rejected by PostgreSQL; let it report the error
+        if (parsedQuery.getGroupByCount() > 0) {
+            return null;
+        }
+        
+        List<Column> projection = new ArrayList<>();
+        if (parsedQuery.getColumnCount() == 0) {
+            projection.addAll(columns);
+        } else {
+            for (int i = 0; i < parsedQuery.getColumnCount(); i++) {
+                Column column = column(parsedQuery.getColumn(i));
+                if (column == null) {
+                    return null;
+                }
+                projection.add(column);
+            }
+        }
+        
+        int limit;
+        if (parsedQuery.getLimit() != null) {
+            limit = Math.min(parsedQuery.getLimit(), count);
+        } else if (count <= maxRows) {
+            limit = count;
+        } else {
+            return null;
+        }
+        
+        RowOrder order = ordering(parsedQuery);
+        if (order == null) {
+            return null;
+        }
+        int[] rows = firstRows(selection, count, limit, order);
+        
+        List<Map<String, Object>> results = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (Column column : projection) {
+                row.put(column.getName(), column.get(rows[i]));
+            }
+            results.add(row);
+        }
+        return results;
+    }
+    
+    /**
+     * The first {@code limit} selected rows in order: a heapsort of every selected row id when
+     * most are needed, a bounded heap when few are. Both work on the int[] of row ids in place.
+     */
+    private static int[] firstRows(int[] selection, int count, int limit, RowOrder order) {
+        int[] heap;
+        int size;
+        if (limit >= count / 2) {
+            heap = Arrays.copyOf(selection, count);
+            size = count;
+            for (int parent = (size >>> 1) - 1; parent >= 0; parent--) {
+                siftDown(heap, parent, size, order);
+            }
+        } else {
+            // Max-heap of the best rows so far: a candidate only has to beat the worst of them
+            heap = new int[limit];
+            size = 0;
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                if (size < limit) {
+                    heap[size] = row;
+                    siftUp(heap, size++, order);
+                } else if (limit > 0 && order.compare(row, heap[0]) < 0) {
+                    heap[0] = row;
+                    siftDown(heap, 0, limit, order);
+                }
+            }
+        }
+        
+        // Popping the worst into the back leaves the heap sorted best-first
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, order);
+        }
+        return heap;
+    }
+    
+    private static void siftUp(int[] heap, int index, RowOrder order) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.compare(heap[parent], row) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+    
+    private static void siftDown(int[] heap, int index, int size, RowOrder order) {
+        int row = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.compare(row, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+    
+    /**
+     * Sort column with NULLS LAST, then primary key in the same direction: the order keyset
+     * pagination gives the database path. Null when the sort column's or the primary key's
+     * order is unreliable, e.g. text under a non-C collation.
+     */
+    private RowOrder ordering(ParsedQuery parsedQuery) {
+        boolean descending = "DESC".equalsIgnoreCase(parsedQuery.getOrderDirection());
+        List<Column> keyList = new ArrayList<>(2);
+        
+        if (parsedQuery.getOrderBy() != null) {
+            Column sortColumn = column(parsedQuery.getOrderBy());
+            if (sortColumn == null || !sortColumn.isOrderable()) {
+                return null;
+            }
+            keyList.add(sortColumn);
+        }
+        if (primaryKey != null && !keyList.contains(primaryKey)) {
+            if (!primaryKey.isOrderable()) {
+                return null;
+            }
+            keyList.add(primaryKey);
+        }
+        Column[] keys = keyList.toArray(new Column[0]);
+        
+        return (left, right) -> {
+            for (Column key : keys) {
+                boolean leftNull = key.isNull(left);
+                boolean rightNull = key.isNull(right);
+                if (leftNull || rightNull) {
+                    if (leftNull != rightNull) {
+                        return leftNull ? 1 : -1;
+                    }
+                    continue;
+                }
+                int compared = key.compareRows(left, right);
+                if (compared != 0) {
+                    return descending ? -compared : compared;
+                }
+            }
+            return 0;
+        };
+    }
+    
+    /** Orders row numbers without boxing them. */
+    @FunctionalInterface
+    private interface RowOrder {
+        int compare(int left, int right);
+    }
+    
+    private Column column(String name) {
+        return name == null ? null : columnsByName.get(name.toLowerCase());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.nlsql.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * numeric stored as unscaled longs at one common scale. Only used when every value fits, so
+ * comparisons are exact. An unconstrained numeric keeps each value's own scale as well, so
+ * values round-trip to the BigDecimal the driver would return: 1.5 stays 1.5, not 1.50.
+ */
+final class DecimalColumn extends Column {
+    
+    private final long[] unscaled;
+    private final int scale;
+    
+    // Per-row scale, null when every value already has the common scale
+    private final byte[] scales;
+    
+    DecimalColumn(String name, BitSet nulls, List<Object> source) {
+        super(name, nulls);
+        scale = maxScale(source);
+        unscaled = new long[source.size()];
+        byte[] rowScales = new byte[unscaled.length];
+        boolean mixedScales = false;
+        for (int row = 0; row < unscaled.length; row++) {
+            Object value = source.get(row);
+            if (value == null) {
+                rowScales[row] = (byte) scale;
+                continue;
+            }
+            BigDecimal decimal = (BigDecimal) value;
+            unscaled[row] = decimal.setScale(scale).unscaledValue().longValueExact();
+            rowScales[row] = (byte) decimal.scale();
+            mixedScales |= decimal.scale() != scale;
+        }
+        scales = mixedScales ? rowScales : null;
+    }
+    
+    static boolean fits(List<Object> values) {
+        int scale = maxScale(values);
+        if (scale > Byte.MAX_VALUE) {
+            return false;
+        }
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (!(value instanceof BigDecimal decimal) || decimal.setScale(scale).unscaledValue().bitLength() > 63
+                || decimal.scale() < Byte.MIN_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int maxScale(List<Object> values) {
+        int scale = 0;
+        for (Object value : values) {
+            if (value instanceof BigDecimal decimal) {
+                scale = Math.max(scale, decimal.scale());
+            }
+        }
+        return scale;
+    }
+    
+    @Override
+    public Object get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        BigDecimal value = BigDecimal.valueOf(unscaled[row], scale);
+        // Only drops trailing zeros the common scale added, so never rounds
+        return scales == null ? value : value.setScale(scales[row]);
+    }
+    
+    @Override
+    public int filterEquals(String literal, int[] selection, int count) {
+        BigDecimal number = parseNumber(literal);
+        if (number == null) {
+            return -1;
+        }
+        
+        BigDecimal rescaled = number.setScale(scale, RoundingMode.DOWN);
+        if (rescaled.compareTo(number) != 0 || rescaled.unscaledValue().bitLength() > 63) {
+            // More precision than any stored value, so nothing can be equal
+            return 0;
+        }
+        long target = rescaled.unscaledValue().longValue();
+        
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (unscaled[row] == target && !isNull(row)) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    public int compareRows(int left, int right) {
+        return Long.compare(unscaled[left], unscaled[right]);
+    }
+    
+    @Override
+    public long estimatedBytes() {
+        return 8L * unscaled.length + (scales == null ? 0 : scales.length) + nullBytes();
+    }
+}
\ No newline at end of file
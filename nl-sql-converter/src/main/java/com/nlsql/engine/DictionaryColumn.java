@@ -0,0 +1,115 @@
+package com.nlsql.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Text-like values stored once in a dictionary, with an int code per row. Equality filters
+ * resolve the literal to a code once and then scan the codes.
+ */
+final class DictionaryColumn extends Column {
+    
+    private static final int NO_CODE = -1;
+    
+    private final Object[] dictionary;
+    private final int[] codes;
+    private final Predicate<String> comparableLiteral;
+    private final boolean orderable;
+    
+    DictionaryColumn(String name, BitSet nulls, List<Object> source, Predicate<String> comparableLiteral,
+                     boolean orderable) {
+        super(name, nulls);
+        this.comparableLiteral = comparableLiteral;
+        this.orderable = orderable;
+        
+        Map<Object, Integer> index = new HashMap<>();
+        List<Object> distinct = new ArrayList<>();
+        codes = new int[source.size()];
+        for (int row = 0; row < codes.length; row++) {
+            Object value = source.get(row);
+            if (value == null) {
+                codes[row] = NO_CODE;
+                continue;
+            }
+            codes[row] = index.computeIfAbsent(value, v -> {
+                distinct.add(v);
+                return distinct.size() - 1;
+            });
+        }
+        dictionary = distinct.toArray();
+    }
+    
+    @Override
+    public Object get(int row) {
+        int code = codes[row];
+        return code == NO_CODE ? null : dictionary[code];
+    }
+    
+    @Override
+    public int filterEquals(String literal, int[] selection, int count) {
+        if (!comparableLiteral.test(literal)) {
+            return -1;
+        }
+        
+        int target = NO_CODE;
+        for (int code = 0; code < dictionary.length; code++) {
+            if (dictionary[code].toString().equals(literal)) {
+                target = code;
+                break;
+            }
+        }
+        if (target == NO_CODE) {
+            return 0;
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (codes[row] == target) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compareRows(int left, int right) {
+        return ((Comparable) dictionary[codes[left]]).compareTo(dictionary[codes[right]]);
+    }
+    
+    @Override
+    public boolean isOrderable() {
+        return orderable;
+    }
+    
+    @Override
+    public int codeCardinality() {
+        // The extra code is NULL
+        return dictionary.length + 1;
+    }
+    
+    @Override
+    public int code(int row) {
+        int code = codes[row];
+        return code == NO_CODE ? dictionary.length : code;
+    }
+    
+    @Override
+    public Object decode(int code) {
+        return code == dictionary.length ? null : dictionary[code];
+    }
+    
+    @Override
+    public long estimatedBytes() {
+        long bytes = 4L * codes.length + nullBytes();
+        for (Object value : dictionary) {
+            bytes += 40 + 2L * value.toString().length();
+        }
+        return bytes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.nlsql.engine;
+
+import java.util.BitSet;
+import java.util.List;
+
+final class DoubleColumn extends Column {
+    
+    private final double[] values;
+    
+    // real columns come back from the driver as Float, double precision as Double
+    private final boolean single;
+    
+    DoubleColumn(String name, BitSet nulls, List<Object> source, boolean single) {
+        super(name, nulls);
+        this.single = single;
+        values = new double[source.size()];
+        for (int row = 0; row < values.length; row++) {
+            Object value = source.get(row);
+            values[row] = value == null ? 0 : ((Number) value).doubleValue();
+        }
+    }
+    
+    @Override
+    public Object get(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        return single ? (Object) (float) values[row] : (Object) values[row];
+    }
+    
+    @Override
+    public int filterEquals(String literal, int[] selection, int count) {
+        double target;
+        try {
+            target = single ? Float.parseFloat(literal.trim()) : Double.parseDouble(literal.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (values[row] == target && !isNull(row)) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    public int compareRows(int left, int right) {
+        return Double.compare(values[left], values[right]);
+    }
+    
+    @Override
+    public long estimatedBytes() {
+        return 8L * values.length + nullBytes();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.nlsql.engine;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+
+final class IntColumn extends Column {
+    
+    private final int[] values;
+    
+    IntColumn(String name, BitSet nulls, List<Object> source) {
+        super(name, nulls);
+        values = new int[source.size()];
+        for (int row = 0; row < values.length; row++) {
+            Object value = source.get(row);
+            values[row] = value == null ? 0 : ((Number) value).intValue();
+        }
+    }
+    
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+    
+    @Override
+    public int filterEquals(String literal, int[] selection, int count) {
+        BigDecimal number = parseNumber(literal);
+        if (number == null) {
+            return -1;
+        }
+        int target;
+        try {
+            target = number.intValueExact();
+        } catch (ArithmeticException e) {
+            // Out of range or fractional: PostgreSQL errors on '1.5'::integer
+            return -1;
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (values[row] == target && !isNull(row)) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    public int compareRows(int left, int right) {
+        return Integer.compare(values[left], values[right]);
+    }
+    
+    @Override
+    public long estimatedBytes() {
+        return 4L * values.length + nullBytes();
+    }
+}
\ No newline at end of file
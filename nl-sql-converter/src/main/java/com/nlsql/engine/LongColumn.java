@@ -0,0 +1,57 @@
+package com.nlsql.engine;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+
+final class LongColumn extends Column {
+    
+    private final long[] values;
+    
+    LongColumn(String name, BitSet nulls, List<Object> source) {
+        super(name, nulls);
+        values = new long[source.size()];
+        for (int row = 0; row < values.length; row++) {
+            Object value = source.get(row);
+            values[row] = value == null ? 0 : ((Number) value).longValue();
+        }
+    }
+    
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+    
+    @Override
+    public int filterEquals(String literal, int[] selection, int count) {
+        BigDecimal number = parseNumber(literal);
+        if (number == null) {
+            return -1;
+        }
+        long target;
+        try {
+            target = number.longValueExact();
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+        
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (values[row] == target && !isNull(row)) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    public int compareRows(int left, int right) {
+        return Long.compare(values[left], values[right]);
+    }
+    
+    @Override
+    public long estimatedBytes() {
+        return 8L * values.length + nullBytes();
+    }
+}
\ No newline at end of file
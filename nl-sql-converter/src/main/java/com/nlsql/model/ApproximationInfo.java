@@ -0,0 +1,73 @@
+package com.nlsql.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ApproximationInfo {
+    
+    // "catalog" for planner statistics, "sample" for a TABLESAMPLE scan, "summary" for the aggregate cache
+    @JsonProperty("method")
+    private String method;
+    
+    @JsonProperty("sample_percent")
+    private Double samplePercent;
+    
+    @JsonProperty("confidence_level")
+    private Double confidenceLevel;
+    
+    // Largest margin of error relative to its estimate, across all result rows
+    @JsonProperty("relative_error")
+    private Double relativeError;
+    
+    // When the data was read, for answers taken from a summary that can trail recent writes
+    @JsonProperty("as_of")
+    private String asOf;
+    
+    public ApproximationInfo() {}
+    
+    public ApproximationInfo(String method, Double samplePercent, Double confidenceLevel, Double relativeError) {
+        this.method = method;
+        this.samplePercent = samplePercent;
+        this.confidenceLevel = confidenceLevel;
+        this.relativeError = relativeError;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public void setMethod(String method) {
+        this.method = method;
+    }
+    
+    public Double getSamplePercent() {
+        return samplePercent;
+    }
+    
+    public void setSamplePercent(Double samplePercent) {
+        this.samplePercent = samplePercent;
+    }
+    
+    public Double getConfidenceLevel() {
+        return confidenceLevel;
+    }
+    
+    public void setConfidenceLevel(Double confidenceLevel) {
+        this.confidenceLevel = confidenceLevel;
+    }
+    
+    public Double getRelativeError() {
+        return relativeError;
+    }
+    
+    public void setRelativeError(Double relativeError) {
+        this.relativeError = relativeError;
+    }
+    
+    public String getAsOf() {
+        return asOf;
+    }
+    
+    public void setAsOf(String asOf) {
+        this.asOf = asOf;
+    }
+}
\ No newline at end of file
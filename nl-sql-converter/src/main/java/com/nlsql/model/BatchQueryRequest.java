@@ -0,0 +1,41 @@
+package com.nlsql.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class BatchQueryRequest {
+    
+    // Independent questions, answered concurrently and returned in the same order
+    @JsonProperty("queries")
+    @NotEmpty(message = "Queries cannot be empty")
+    @Size(max = 50, message = "At most 50 queries per batch")
+    private List<String> queries;
+    
+    @JsonProperty("approximate")
+    private boolean approximate;
+    
+    public BatchQueryRequest() {}
+    
+    public BatchQueryRequest(List<String> queries) {
+        this.queries = queries;
+    }
+    
+    public List<String> getQueries() {
+        return queries;
+    }
+    
+    public void setQueries(List<String> queries) {
+        this.queries = queries;
+    }
+    
+    public boolean isApproximate() {
+        return approximate;
+    }
+    
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+}
\ No newline at end of file
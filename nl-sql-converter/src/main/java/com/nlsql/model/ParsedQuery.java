@@ -1,86 +1,311 @@
 package com.nlsql.model;
 
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
 
-public class ParsedQuery {
+/**
+ * Immutable result of parsing a question, built once per request and read by every later stage.
+ *
+ * Column references are held in exact-size arrays rather than collections, WHERE conditions as
+ * parallel name and value arrays in the order they were found. Once mapped to the schema, table
+ * and column names are the schema snapshot's own interned instances, so stages can compare them
+ * by identity. An empty column list stands for every column.
+ */
+public final class ParsedQuery {
     
-    private QueryType queryType;
-    private String tableName;
-    private List<String> columns;
-    private Map<String, Object> whereConditions;
-    private List<String> groupByColumns;
-    private String orderBy;
-    private String orderDirection;
-    private Integer limit;
+    private static final String[] NO_NAMES = new String[0];
+    private static final Object[] NO_VALUES = new Object[0];
+    
+    private final QueryType queryType;
+    private final String tableName;
+    private final String[] columns;
+    private final String[] conditionColumns;
+    private final Object[] conditionValues;
+    private final String[] groupByColumns;
+    private final String orderBy;
+    private final String orderDirection;
+    private final Integer limit;
     
     public enum QueryType {
         SELECT, COUNT, INSERT, UPDATE, DELETE
     }
     
-    public ParsedQuery() {}
+    private ParsedQuery(QueryType queryType, String tableName, String[] columns, String[] conditionColumns,
+                        Object[] conditionValues, String[] groupByColumns, String orderBy, String orderDirection,
+                        Integer limit) {
+        this.queryType = queryType;
+        this.tableName = tableName;
+        this.columns = columns;
+        this.conditionColumns = conditionColumns;
+        this.conditionValues = conditionValues;
+        this.groupByColumns = groupByColumns;
+        this.orderBy = orderBy;
+        this.orderDirection = orderDirection;
+        this.limit = limit;
+    }
     
-    public QueryType getQueryType() {
-        return queryType;
+    public static Builder builder() {
+        return new Builder();
     }
     
-    public void setQueryType(QueryType queryType) {
-        this.queryType = queryType;
+    /** A builder starting from this query, for stages that derive a variant of it. */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.queryType = queryType;
+        builder.tableName = tableName;
+        builder.columns = columns.clone();
+        builder.columnCount = columns.length;
+        builder.conditionColumns = conditionColumns.clone();
+        builder.conditionValues = conditionValues.clone();
+        builder.conditionCount = conditionColumns.length;
+        builder.groupByColumns = groupByColumns.clone();
+        builder.groupByCount = groupByColumns.length;
+        builder.orderBy = orderBy;
+        builder.orderDirection = orderDirection;
+        builder.limit = limit;
+        return builder;
+    }
+    
+    public QueryType getQueryType() {
+        return queryType;
     }
     
     public String getTableName() {
         return tableName;
     }
     
-    public void setTableName(String tableName) {
-        this.tableName = tableName;
+    public int getColumnCount() {
+        return columns.length;
     }
     
-    public List<String> getColumns() {
-        return columns;
+    public String getColumn(int index) {
+        return columns[index];
     }
     
-    public void setColumns(List<String> columns) {
-        this.columns = columns;
+    public int getConditionCount() {
+        return conditionColumns.length;
     }
     
-    public Map<String, Object> getWhereConditions() {
-        return whereConditions;
+    public String getConditionColumn(int index) {
+        return conditionColumns[index];
     }
     
-    public void setWhereConditions(Map<String, Object> whereConditions) {
-        this.whereConditions = whereConditions;
+    public Object getConditionValue(int index) {
+        return conditionValues[index];
     }
     
-    public List<String> getGroupByColumns() {
-        return groupByColumns;
+    /** The value the query compares a column with, or null when it does not filter on it. */
+    public Object getConditionValue(String column) {
+        int index = indexOf(conditionColumns, conditionColumns.length, column);
+        return index < 0 ? null : conditionValues[index];
     }
     
-    public void setGroupByColumns(List<String> groupByColumns) {
-        this.groupByColumns = groupByColumns;
+    public int getGroupByCount() {
+        return groupByColumns.length;
     }
     
-    public String getOrderBy() {
-        return orderBy;
+    public String getGroupByColumn(int index) {
+        return groupByColumns[index];
     }
     
-    public void setOrderBy(String orderBy) {
-        this.orderBy = orderBy;
+    public String getOrderBy() {
+        return orderBy;
     }
     
     public String getOrderDirection() {
         return orderDirection;
     }
     
-    public void setOrderDirection(String orderDirection) {
-        this.orderDirection = orderDirection;
-    }
-    
     public Integer getLimit() {
         return limit;
     }
     
-    public void setLimit(Integer limit) {
-        this.limit = limit;
+    /**
+     * Renames the table and every column reference. Columns the mapper returns null for are
+     * dropped; conditions renamed onto the same column keep the first position and the last
+     * value. Returns this query itself when every name maps to the instance it already holds.
+     */
+    public ParsedQuery mapNames(String mappedTableName, UnaryOperator<String> columnMapper) {
+        String[] mappedColumns = mapAll(columns, columnMapper);
+        String[] mappedGroupBy = mapAll(groupByColumns, columnMapper);
+        String mappedOrderBy = orderBy == null ? null : columnMapper.apply(orderBy);
+        
+        String[] mappedConditionColumns = conditionColumns;
+        Object[] mappedConditionValues = conditionValues;
+        int conditionCount = 0;
+        for (int i = 0; i < conditionColumns.length; i++) {
+            String column = columnMapper.apply(conditionColumns[i]);
+            int existing = column == null ? -1 : indexOf(mappedConditionColumns, conditionCount, column);
+            if (mappedConditionColumns == conditionColumns && (column != conditionColumns[i] || existing >= 0)) {
+                mappedConditionColumns = conditionColumns.clone();
+                mappedConditionValues = conditionValues.clone();
+            }
+            if (column == null) {
+                continue;
+            }
+            if (existing >= 0) {
+                mappedConditionValues[existing] = conditionValues[i];
+                continue;
+            }
+            if (mappedConditionColumns != conditionColumns) {
+                mappedConditionColumns[conditionCount] = column;
+                mappedConditionValues[conditionCount] = conditionValues[i];
+            }
+            conditionCount++;
+        }
+        
+        if (mappedTableName == tableName && mappedColumns == columns && mappedGroupBy == groupByColumns
+                && mappedOrderBy == orderBy && mappedConditionColumns == conditionColumns) {
+            return this;
+        }
+        return new ParsedQuery(queryType, mappedTableName, mappedColumns,
+            trim(mappedConditionColumns, conditionCount), trim(mappedConditionValues, conditionCount),
+            mappedGroupBy, mappedOrderBy, orderDirection, limit);
+    }
+    
+    // Copies the array on the first name that changes, so an unchanged array comes back as is
+    private static String[] mapAll(String[] names, UnaryOperator<String> mapper) {
+        String[] mapped = names;
+        int count = 0;
+        for (int i = 0; i < names.length; i++) {
+            String name = mapper.apply(names[i]);
+            if (name != names[i] && mapped == names) {
+                mapped = names.clone();
+            }
+            if (name != null) {
+                if (mapped != names) {
+                    mapped[count] = name;
+                }
+                count++;
+            }
+        }
+        return trim(mapped, count);
+    }
+    
+    private static int indexOf(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i] == name || names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int indexOfIgnoreCase(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i] == name || names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static String[] trim(String[] names, int count) {
+        if (count == names.length) {
+            return names;
+        }
+        return count == 0 ? NO_NAMES : Arrays.copyOf(names, count);
+    }
+    
+    private static Object[] trim(Object[] values, int count) {
+        if (count == values.length) {
+            return values;
+        }
+        return count == 0 ? NO_VALUES : Arrays.copyOf(values, count);
+    }
+    
+    /**
+     * Collects the parts of a query in the order they are found. The query built shares the
+     * builder's arrays, so a builder is not used again once built. Not thread-safe.
+     */
+    public static final class Builder {
+        
+        private QueryType queryType;
+        private String tableName;
+        private String[] columns = NO_NAMES;
+        private int columnCount;
+        private String[] conditionColumns = NO_NAMES;
+        private Object[] conditionValues = NO_VALUES;
+        private int conditionCount;
+        private String[] groupByColumns = NO_NAMES;
+        private int groupByCount;
+        private String orderBy;
+        private String orderDirection;
+        private Integer limit;
+        
+        private Builder() {}
+        
+        public Builder queryType(QueryType queryType) {
+            this.queryType = queryType;
+            return this;
+        }
+        
+        public Builder tableName(String tableName) {
+            this.tableName = tableName;
+            return this;
+        }
+        
+        /** Adds a column to the projection; SQL names are case-insensitive, so repeats are ignored. */
+        public Builder column(String column) {
+            if (indexOfIgnoreCase(columns, columnCount, column) < 0) {
+                columns = grow(columns, columnCount);
+                columns[columnCount++] = column;
+            }
+            return this;
+        }
+        
+        /** Filters on a column equal to a value, replacing the value of a column already filtered on. */
+        public Builder condition(String column, Object value) {
+            int existing = indexOf(conditionColumns, conditionCount, column);
+            if (existing >= 0) {
+                conditionValues[existing] = value;
+                return this;
+            }
+            conditionColumns = grow(conditionColumns, conditionCount);
+            if (conditionValues.length == conditionCount) {
+                conditionValues = Arrays.copyOf(conditionValues, conditionColumns.length);
+            }
+            conditionColumns[conditionCount] = column;
+            conditionValues[conditionCount++] = value;
+            return this;
+        }
+        
+        public boolean hasCondition(String column) {
+            return indexOf(conditionColumns, conditionCount, column) >= 0;
+        }
+        
+        public Builder groupBy(String column) {
+            if (indexOfIgnoreCase(groupByColumns, groupByCount, column) < 0) {
+                groupByColumns = grow(groupByColumns, groupByCount);
+                groupByColumns[groupByCount++] = column;
+            }
+            return this;
+        }
+        
+        public Builder orderBy(String orderBy) {
+            this.orderBy = orderBy;
+            return this;
+        }
+        
+        public Builder orderDirection(String orderDirection) {
+            this.orderDirection = orderDirection;
+            return this;
+        }
+        
+        public Builder limit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+        
+        public ParsedQuery build() {
+            return new ParsedQuery(queryType, tableName, trim(columns, columnCount),
+                trim(conditionColumns, conditionCount), trim(conditionValues, conditionCount),
+                trim(groupByColumns, groupByCount), orderBy, orderDirection, limit);
+        }
+        
+        // Questions name a handful of columns at most, so arrays start small
+        private static String[] grow(String[] names, int count) {
+            return count < names.length ? names : Arrays.copyOf(names, Math.max(4, count * 2));
+        }
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.nlsql.model;
 
-import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.AssertTrue;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class QueryRequest {
     
-    @NotBlank(message = "Query cannot be empty")
     @JsonProperty("query")
     private String query;
     
+    // Continuation token from a previous response's next_cursor; replaces the query
+    @JsonProperty("cursor")
+    private String cursor;
+    
+    // Allow COUNT queries to be answered from statistics or a sample instead of a full scan
+    @JsonProperty("approximate")
+    private boolean approximate;
+    
     public QueryRequest() {}
     
     public QueryRequest(String query) {
@@ -22,4 +30,26 @@ public class QueryRequest {
     public void setQuery(String query) {
         this.query = query;
     }
+    
+    public String getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+    
+    public boolean isApproximate() {
+        return approximate;
+    }
+    
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Query cannot be empty")
+    public boolean isQueryOrCursorPresent() {
+        return (query != null && !query.isBlank()) || (cursor != null && !cursor.isBlank());
+    }
 }
\ No newline at end of file
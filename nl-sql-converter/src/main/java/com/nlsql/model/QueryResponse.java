@@ -18,6 +18,18 @@ public class QueryResponse {
     @JsonProperty("execution_time_ms")
     private Long executionTimeMs;
     
+    // Opaque token for the next page; null when there are no more rows
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+    
+    // Present only when the results are estimates rather than exact values
+    @JsonProperty("approximation")
+    private ApproximationInfo approximation;
+    
+    // Closest table names when the question named a table that does not exist
+    @JsonProperty("suggestions")
+    private List<String> suggestions;
+    
     public QueryResponse() {}
     
     public QueryResponse(String sql, List<Map<String, Object>> results) {
@@ -60,4 +72,28 @@ public class QueryResponse {
     public void setExecutionTimeMs(Long executionTimeMs) {
         this.executionTimeMs = executionTimeMs;
     }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public ApproximationInfo getApproximation() {
+        return approximation;
+    }
+    
+    public void setApproximation(ApproximationInfo approximation) {
+        this.approximation = approximation;
+    }
+    
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
+    
+    public void setSuggestions(List<String> suggestions) {
+        this.suggestions = suggestions;
+    }
 }
\ No newline at end of file
@@ -5,8 +5,12 @@ import java.util.List;
 public class TableInfo {
     
     private String tableName;
+    // Federated source the table was loaded from
+    private String sourceName;
     private List<ColumnInfo> columns;
     private List<String> aliases;
+    private String primaryKey;
+    private List<IndexInfo> indexes;
     
     public TableInfo() {}
     
@@ -23,6 +27,14 @@ public class TableInfo {
         this.tableName = tableName;
     }
     
+    public String getSourceName() {
+        return sourceName;
+    }
+    
+    public void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+    }
+    
     public List<ColumnInfo> getColumns() {
         return columns;
     }
@@ -39,6 +51,34 @@ public class TableInfo {
         this.aliases = aliases;
     }
     
+    public String getPrimaryKey() {
+        return primaryKey;
+    }
+    
+    public void setPrimaryKey(String primaryKey) {
+        this.primaryKey = primaryKey;
+    }
+    
+    public List<IndexInfo> getIndexes() {
+        return indexes;
+    }
+    
+    public void setIndexes(List<IndexInfo> indexes) {
+        this.indexes = indexes;
+    }
+    
+    public ColumnInfo getColumn(String columnName) {
+        if (columns == null || columnName == null) {
+            return null;
+        }
+        for (ColumnInfo column : columns) {
+            if (column.getColumnName().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+    
     public static class ColumnInfo {
         private String columnName;
         private String dataType;
@@ -85,4 +125,33 @@ public class TableInfo {
             this.aliases = aliases;
         }
     }
+    
+    /** A plain (non-partial, non-expression) index and its key columns in order. */
+    public static class IndexInfo {
+        private String indexName;
+        private List<String> columns;
+        
+        public IndexInfo() {}
+        
+        public IndexInfo(String indexName, List<String> columns) {
+            this.indexName = indexName;
+            this.columns = columns;
+        }
+        
+        public String getIndexName() {
+            return indexName;
+        }
+        
+        public void setIndexName(String indexName) {
+            this.indexName = indexName;
+        }
+        
+        public List<String> getColumns() {
+            return columns;
+        }
+        
+        public void setColumns(List<String> columns) {
+            this.columns = columns;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.nlsql.service;
+
+import com.nlsql.util.AdaptiveConcurrencyLimit;
+import com.nlsql.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a query request may run. Each client has a token bucket of
+ * {@code nlsql.admission.rate-limit.*}; past it the request is refused with 429. A client is
+ * its API key when the key is one of {@code nlsql.admission.rate-limit.api-keys}, else its
+ * remote address, so made-up keys cannot buy fresh buckets. Admitted requests then need a slot
+ * under an adaptive concurrency limit that shrinks when query latency crosses
+ * {@code nlsql.admission.latency-threshold-ms}; without one the request is refused with 503
+ * instead of queueing on a slow database.
+ */
+@Service
+public class AdmissionControlService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${nlsql.admission.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.admission.initial-limit:20}")
+    private int initialLimit;
+    
+    @Value("${nlsql.admission.min-limit:4}")
+    private int minLimit;
+    
+    @Value("${nlsql.admission.max-limit:200}")
+    private int maxLimit;
+    
+    @Value("${nlsql.admission.latency-threshold-ms:1000}")
+    private long latencyThresholdMs;
+    
+    @Value("${nlsql.admission.backoff-ratio:0.9}")
+    private double backoffRatio;
+    
+    @Value("${nlsql.admission.rate-limit.requests-per-second:50}")
+    private double requestsPerSecond;
+    
+    @Value("${nlsql.admission.rate-limit.burst:100}")
+    private int burst;
+    
+    @Value("${nlsql.admission.rate-limit.max-clients:10000}")
+    private int maxClients;
+    
+    @Value("${nlsql.admission.rate-limit.api-keys:}")
+    private Set<String> apiKeys;
+    
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    
+    private Counter rateLimited;
+    private Counter overloaded;
+    
+    @PostConstruct
+    public void init() {
+        concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit,
+            TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs), backoffRatio);
+        
+        rateLimited = Counter.builder("nlsql.admission.rejected").tag("reason", "rate_limit").register(meterRegistry);
+        overloaded = Counter.builder("nlsql.admission.rejected").tag("reason", "concurrency_limit").register(meterRegistry);
+        Gauge.builder("nlsql.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+            .description("Current adaptive concurrency limit")
+            .register(meterRegistry);
+        Gauge.builder("nlsql.admission.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+            .register(meterRegistry);
+        Gauge.builder("nlsql.admission.clients", buckets, ConcurrentHashMap::size)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Admits a request carrying {@code apiKey} (null when there is none) from
+     * {@code remoteAddress}. The returned decision must be passed to {@link #release} once the
+     * request completes if it was admitted.
+     */
+    public Admission admit(String apiKey, String remoteAddress) {
+        if (!enabled) {
+            return Admission.UNLIMITED;
+        }
+        
+        Admission rate = admitRate(apiKey, remoteAddress, 1);
+        return rate.getStatus() == Status.ADMITTED ? acquireSlot() : rate;
+    }
+    
+    /**
+     * Charges a batch of {@code questions} to the client's rate limit, one token per question
+     * and at most the whole burst. Holds no concurrency slot: each question takes its own with
+     * {@link #acquireSlot} when it runs, so the limit sees the latency of single questions.
+     */
+    public Admission admitBatch(String apiKey, String remoteAddress, int questions) {
+        if (!enabled) {
+            return Admission.UNLIMITED;
+        }
+        return admitRate(apiKey, remoteAddress, Math.max(1, Math.min(questions, burst)));
+    }
+    
+    /** Takes a slot under the concurrency limit for one question; release it as for {@link #admit}. */
+    public Admission acquireSlot() {
+        if (!enabled) {
+            return Admission.UNLIMITED;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            overloaded.increment();
+            return Admission.OVERLOADED;
+        }
+        return Admission.admitted(System.nanoTime());
+    }
+    
+    private Admission admitRate(String apiKey, String remoteAddress, int tokens) {
+        if (requestsPerSecond > 0) {
+            long waitNanos = bucket(clientId(apiKey, remoteAddress)).tryAcquire(tokens);
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                return Admission.rateLimited(waitNanos);
+            }
+        }
+        return Admission.UNLIMITED;
+    }
+    
+    public void release(Admission admission) {
+        if (admission.holdsSlot) {
+            concurrencyLimit.release(admission.startNanos);
+        }
+    }
+    
+    private String clientId(String apiKey, String remoteAddress) {
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + remoteAddress;
+    }
+    
+    private TokenBucket bucket(String clientId) {
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients) {
+            evictStalestClients();
+        }
+        return buckets.computeIfAbsent(clientId, id -> new TokenBucket(requestsPerSecond, burst));
+    }
+    
+    /**
+     * Makes room for new clients: idle ones go first, then the eighth whose buckets refill
+     * soonest. Those are the closest to a fresh bucket, so forgetting them costs the least,
+     * while the buckets of clients pushing their limit are kept. Evicting in batches keeps the
+     * scan rare when many new clients arrive.
+     */
+    private synchronized void evictStalestClients() {
+        if (buckets.size() < maxClients) {
+            return;
+        }
+        evictIdleClients();
+        int excess = buckets.size() - maxClients + Math.max(1, maxClients / 8);
+        if (excess <= 0) {
+            return;
+        }
+        
+        long[] fullAt = buckets.values().stream().mapToLong(TokenBucket::getFullAtNanos).sorted().toArray();
+        long cutoff = fullAt[Math.min(excess, fullAt.length) - 1];
+        buckets.values().removeIf(bucket -> bucket.getFullAtNanos() - cutoff <= 0);
+        logger.debug("Rate-limit buckets at capacity, {} left after evicting the stalest", buckets.size());
+    }
+    
+    /** Forgets clients whose bucket has refilled; a fresh bucket behaves the same. */
+    @Scheduled(fixedDelayString = "${nlsql.admission.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleClients() {
+        int before = buckets.size();
+        buckets.values().removeIf(TokenBucket::isFull);
+        logger.debug("Evicted {} idle rate-limit buckets", before - buckets.size());
+    }
+    
+    public boolean isSaturated() {
+        return enabled && concurrencyLimit.isSaturated();
+    }
+    
+    public int getLimit() {
+        return concurrencyLimit.getLimit();
+    }
+    
+    public int getInFlight() {
+        return concurrencyLimit.getInFlight();
+    }
+    
+    public enum Status {
+        ADMITTED, RATE_LIMITED, OVERLOADED
+    }
+    
+    /** Outcome of {@link #admit}; for rate-limited requests, how long to wait before retrying. */
+    public static final class Admission {
+        
+        static final Admission UNLIMITED = new Admission(Status.ADMITTED, false, 0, 0);
+        static final Admission OVERLOADED = new Admission(Status.OVERLOADED, false, 0, 0);
+        
+        private final Status status;
+        private final boolean holdsSlot;
+        private final long startNanos;
+        private final long retryAfterNanos;
+        
+        private Admission(Status status, boolean holdsSlot, long startNanos, long retryAfterNanos) {
+            this.status = status;
+            this.holdsSlot = holdsSlot;
+            this.startNanos = startNanos;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+        
+        static Admission admitted(long startNanos) {
+            return new Admission(Status.ADMITTED, true, startNanos, 0);
+        }
+        
+        static Admission rateLimited(long retryAfterNanos) {
+            return new Admission(Status.RATE_LIMITED, false, 0, retryAfterNanos);
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        /** Whole seconds for a Retry-After header, at least one. */
+        public long getRetryAfterSeconds() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+    }
+}
\ No newline at end of file
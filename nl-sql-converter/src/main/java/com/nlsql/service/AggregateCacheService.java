@@ -0,0 +1,372 @@
+package com.nlsql.service;
+
+import com.nlsql.model.ApproximationInfo;
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.model.TableInfo;
+import com.nlsql.util.SqlLiterals;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps in-memory COUNT summaries for the most frequently asked aggregate shapes. A shape is a
+ * table with its group-by and filter columns; its summary is one COUNT per distinct combination
+ * of those columns, so every question of that shape, whatever the filter values, is answered by
+ * summing summary rows instead of querying Postgres.
+ *
+ * Shape frequencies are tracked on every COUNT and halved on each refresh, so popularity follows
+ * recent traffic. The refresh materializes shapes that reached {@code min-hits}, rebuilds only
+ * summaries whose table changed since they were built, and evicts the least frequently used
+ * summaries until the estimated footprint fits the memory budget.
+ *
+ * Answers can trail writes by up to one refresh interval, so each carries an approximation
+ * marker with the time its summary was read. Only shapes filtering on text, integer, numeric
+ * and boolean columns are cached, the types whose equality is matched here as Postgres does.
+ */
+@Service
+public class AggregateCacheService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AggregateCacheService.class);
+    
+    // Rough per-row cost of a summary entry: map node, key list and boxed count
+    private static final long ROW_OVERHEAD_BYTES = 96;
+    private static final long VALUE_OVERHEAD_BYTES = 24;
+    
+    // char(n) is left out: Postgres ignores its trailing blanks when comparing
+    private static final Set<String> FILTER_TYPES = Set.of(
+        "character varying", "text", "smallint", "integer", "bigint", "numeric", "boolean"
+    );
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
+    @Autowired
+    private QueryExecutionService queryExecutionService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${nlsql.aggregate-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.aggregate-cache.min-hits:3}")
+    private long minHits;
+    
+    @Value("${nlsql.aggregate-cache.max-bytes:16777216}")
+    private long maxBytes;
+    
+    @Value("${nlsql.aggregate-cache.max-summary-rows:10000}")
+    private int maxSummaryRows;
+    
+    private final ConcurrentHashMap<Shape, LongAdder> shapeHits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Shape, Summary> summaries = new ConcurrentHashMap<>();
+    
+    // Shapes whose summary would exceed max-summary-rows; not retried until evicted from tracking
+    private final Set<Shape> unmaterializable = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private Counter hits;
+    private Counter misses;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        hits = Counter.builder("nlsql.aggregate.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("nlsql.aggregate.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("nlsql.aggregate.cache.bytes", cachedBytes, AtomicLong::get)
+            .description("Estimated heap used by materialized summaries")
+            .register(meterRegistry);
+        Gauge.builder("nlsql.aggregate.cache.summaries", summaries, Map::size)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Records the query's shape and answers it from a materialized summary when one exists.
+     * Returns null for anything the cache cannot answer.
+     */
+    public QueryResponse lookup(ParsedQuery parsedQuery, String sql) {
+        if (!enabled || !isCacheable(parsedQuery)) {
+            return null;
+        }
+        
+        Shape shape = Shape.of(parsedQuery);
+        shapeHits.computeIfAbsent(shape, s -> new LongAdder()).increment();
+        
+        Summary summary = summaries.get(shape);
+        if (summary == null) {
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        logger.debug("Answering {} from aggregate summary built at {}", sql, summary.builtAtMillis);
+        QueryResponse response = new QueryResponse(sql, summary.answer(shape, parsedQuery));
+        ApproximationInfo approximation = new ApproximationInfo("summary", null, null, null);
+        approximation.setAsOf(Instant.ofEpochMilli(summary.builtAtMillis).toString());
+        response.setApproximation(approximation);
+        return response;
+    }
+    
+    /** Drops every summary of a table, e.g. after a schema or bulk data change. */
+    public void invalidateTable(String tableName) {
+        summaries.entrySet().removeIf(entry -> {
+            if (!entry.getKey().tableName.equals(tableName)) {
+                return false;
+            }
+            cachedBytes.addAndGet(-entry.getValue().estimatedBytes);
+            return true;
+        });
+    }
+    
+    @EventListener
+    public void onSchemaChanged(SchemaChangedEvent event) {
+        if (event.isWholeSchema()) {
+            summaries.keySet().stream().map(shape -> shape.tableName).distinct().toList().forEach(this::invalidateTable);
+        } else {
+            invalidateTable(event.getTableName());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${nlsql.aggregate-cache.refresh-interval-ms:60000}",
+               initialDelayString = "${nlsql.aggregate-cache.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        
+        Map<Shape, Long> frequencies = new LinkedHashMap<>();
+        shapeHits.forEach((shape, counter) -> frequencies.put(shape, counter.sum()));
+        
+        Map<String, Long> tableVersions = new LinkedHashMap<>();
+        for (Map.Entry<Shape, Long> entry : frequencies.entrySet()) {
+            Shape shape = entry.getKey();
+            Summary current = summaries.get(shape);
+            if (current == null && (entry.getValue() < minHits || unmaterializable.contains(shape))) {
+                continue;
+            }
+            
+            try {
+                long version = tableVersions.computeIfAbsent(shape.tableName,
+                    databaseSchemaService::getModificationCount);
+                if (current != null && current.tableVersion == version) {
+                    continue;
+                }
+                build(shape, version);
+            } catch (Exception e) {
+                logger.warn("Could not build aggregate summary for {}: {}", shape, e.getMessage());
+            }
+        }
+        
+        evictToBudget(frequencies);
+        decay();
+    }
+    
+    private void build(Shape shape, long tableVersion) {
+        if (!hasComparableFilters(shape)) {
+            logger.info("Not caching {}: it filters on a column type the summary cannot compare", shape);
+            unmaterializable.add(shape);
+            return;
+        }
+        
+        List<String> keyColumns = shape.keyColumns();
+        String columns = keyColumns.isEmpty() ? "" : String.join(", ", keyColumns) + ", ";
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append("COUNT(*) as count FROM ")
+            .append(shape.tableName);
+        if (!keyColumns.isEmpty()) {
+            sql.append(" GROUP BY ").append(String.join(", ", keyColumns));
+        }
+        sql.append(" LIMIT ").append(maxSummaryRows + 1);
+        
+        List<Map<String, Object>> rows = queryExecutionService.executeQuery(sql.toString());
+        if (rows.size() > maxSummaryRows) {
+            logger.info("Not caching {}: more than {} combinations", shape, maxSummaryRows);
+            unmaterializable.add(shape);
+            return;
+        }
+        
+        Map<List<Object>, Long> counts = new LinkedHashMap<>();
+        long bytes = 0;
+        for (Map<String, Object> row : rows) {
+            List<Object> key = new ArrayList<>(keyColumns.size());
+            for (String column : keyColumns) {
+                Object value = row.get(column);
+                key.add(value);
+                bytes += VALUE_OVERHEAD_BYTES + (value instanceof String text ? 2L * text.length() : 8);
+            }
+            counts.put(key, ((Number) row.get("count")).longValue());
+            bytes += ROW_OVERHEAD_BYTES;
+        }
+        
+        Summary summary = new Summary(counts, tableVersion, bytes, System.currentTimeMillis());
+        Summary previous = summaries.put(shape, summary);
+        cachedBytes.addAndGet(bytes - (previous == null ? 0 : previous.estimatedBytes));
+        logger.debug("Materialized {} with {} rows (~{} bytes)", shape, counts.size(), bytes);
+    }
+    
+    private void evictToBudget(Map<Shape, Long> frequencies) {
+        if (cachedBytes.get() <= maxBytes) {
+            return;
+        }
+        
+        List<Shape> byFrequency = new ArrayList<>(summaries.keySet());
+        byFrequency.sort(Comparator.comparingLong(shape -> frequencies.getOrDefault(shape, 0L)));
+        for (Shape shape : byFrequency) {
+            if (cachedBytes.get() <= maxBytes) {
+                break;
+            }
+            Summary evicted = summaries.remove(shape);
+            if (evicted != null) {
+                cachedBytes.addAndGet(-evicted.estimatedBytes);
+                logger.debug("Evicted {} ({} bytes)", shape, evicted.estimatedBytes);
+            }
+        }
+    }
+    
+    private void decay() {
+        shapeHits.forEach((shape, counter) -> {
+            long halved = counter.sumThenReset() / 2;
+            counter.add(halved);
+        });
+        shapeHits.entrySet().removeIf(entry -> entry.getValue().sum() == 0 && !summaries.containsKey(entry.getKey()));
+        unmaterializable.retainAll(shapeHits.keySet());
+    }
+    
+    private boolean hasComparableFilters(Shape shape) {
+        TableInfo tableInfo = databaseSchemaService.getTableInfo(shape.tableName);
+        for (String column : shape.filterColumns) {
+            TableInfo.ColumnInfo columnInfo = tableInfo.getColumn(column);
+            if (columnInfo == null || columnInfo.getDataType() == null
+                    || !FILTER_TYPES.contains(columnInfo.getDataType().toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isCacheable(ParsedQuery parsedQuery) {
+        return parsedQuery.getQueryType() == ParsedQuery.QueryType.COUNT
+            && parsedQuery.getLimit() == null
+            && parsedQuery.getOrderBy() == null;
+    }
+    
+    /** A table with sorted group-by and filter columns; filter values are not part of the shape. */
+    private record Shape(String tableName, List<String> groupColumns, List<String> filterColumns) {
+        
+        static Shape of(ParsedQuery parsedQuery) {
+            String[] groupColumns = new String[parsedQuery.getGroupByCount()];
+            for (int i = 0; i < groupColumns.length; i++) {
+                groupColumns[i] = parsedQuery.getGroupByColumn(i);
+            }
+            String[] filterColumns = new String[parsedQuery.getConditionCount()];
+            for (int i = 0; i < filterColumns.length; i++) {
+                filterColumns[i] = parsedQuery.getConditionColumn(i);
+            }
+            Arrays.sort(groupColumns);
+            Arrays.sort(filterColumns);
+            return new Shape(parsedQuery.getTableName(), List.of(groupColumns), List.of(filterColumns));
+        }
+        
+        List<String> keyColumns() {
+            List<String> columns = new ArrayList<>(groupColumns);
+            columns.addAll(filterColumns);
+            return columns;
+        }
+    }
+    
+    private record Summary(Map<List<Object>, Long> counts, long tableVersion, long estimatedBytes,
+                           long builtAtMillis) {
+        
+        /** Sums the rows matching the query's filter values, grouped as the query asked. */
+        List<Map<String, Object>> answer(Shape shape, ParsedQuery parsedQuery) {
+            int[] groupPositions = new int[parsedQuery.getGroupByCount()];
+            for (int i = 0; i < groupPositions.length; i++) {
+                groupPositions[i] = shape.groupColumns.indexOf(parsedQuery.getGroupByColumn(i));
+            }
+            
+            int filterOffset = shape.groupColumns.size();
+            String[] filterValues = new String[shape.filterColumns.size()];
+            for (int i = 0; i < filterValues.length; i++) {
+                filterValues[i] = String.valueOf(parsedQuery.getConditionValue(shape.filterColumns.get(i)));
+            }
+            
+            Map<List<Object>, Long> grouped = new LinkedHashMap<>();
+            for (Map.Entry<List<Object>, Long> entry : counts.entrySet()) {
+                List<Object> key = entry.getKey();
+                if (!matches(key, filterOffset, filterValues)) {
+                    continue;
+                }
+                List<Object> groupKey = new ArrayList<>(groupPositions.length);
+                for (int position : groupPositions) {
+                    groupKey.add(key.get(position));
+                }
+                grouped.merge(groupKey, entry.getValue(), Long::sum);
+            }
+            
+            // An ungrouped COUNT always returns one row, even when nothing matches
+            if (groupPositions.length == 0 && grouped.isEmpty()) {
+                grouped.put(List.of(), 0L);
+            }
+            
+            List<Map<String, Object>> results = new ArrayList<>(grouped.size());
+            for (Map.Entry<List<Object>, Long> entry : grouped.entrySet()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 0; i < groupPositions.length; i++) {
+                    row.put(parsedQuery.getGroupByColumn(i), entry.getKey().get(i));
+                }
+                row.put("count", entry.getValue());
+                results.add(row);
+            }
+            return results;
+        }
+        
+        // Mirrors the generated "column = 'value'" predicate: nulls never match
+        private static boolean matches(List<Object> key, int filterOffset, String[] filterValues) {
+            for (int i = 0; i < filterValues.length; i++) {
+                if (!sqlEquals(key.get(filterOffset + i), filterValues[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        // Postgres casts the literal to the column type, so 75000 matches 75000.00
+        private static boolean sqlEquals(Object value, String literal) {
+            if (value == null) {
+                return false;
+            }
+            if (value instanceof Number number) {
+                try {
+                    return new BigDecimal(number.toString()).compareTo(new BigDecimal(literal.trim())) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            if (value instanceof Boolean bool) {
+                return bool.equals(SqlLiterals.parseBoolean(literal));
+            }
+            // Only text columns are left, which compare exactly
+            return value.equals(literal);
+        }
+    }
+}
\ No newline at end of file
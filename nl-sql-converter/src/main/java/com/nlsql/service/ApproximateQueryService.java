@@ -0,0 +1,172 @@
+package com.nlsql.service;
+
+import com.nlsql.model.ApproximationInfo;
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.QueryResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Answers COUNT queries on large tables without a full scan. Unfiltered counts come from the
+ * planner's row estimate when the table has not changed much since its last ANALYZE; filtered
+ * and grouped counts are computed on a TABLESAMPLE SYSTEM block sample and scaled to the row estimate. Either
+ * way the caller gets null back, and should run the exact query, when the table is too small
+ * to bother or the estimate's margin of error exceeds the configured limit. Every group in a
+ * grouped estimate must meet that limit; groups too rare to appear in the sample are absent.
+ */
+@Service
+public class ApproximateQueryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ApproximateQueryService.class);
+    
+    // Two-sided 95% normal quantile
+    private static final double Z_95 = 1.96;
+    private static final double CONFIDENCE_LEVEL = 0.95;
+    
+    // Past this fraction a sample saves too little over the exact scan
+    private static final double MAX_SAMPLE_FRACTION = 0.5;
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
+    @Autowired
+    private QueryExecutionService queryExecutionService;
+    
+    @Value("${nlsql.approximate.min-table-rows:1000000}")
+    private long minTableRows;
+    
+    @Value("${nlsql.approximate.sample-rows:100000}")
+    private long sampleRows;
+    
+    @Value("${nlsql.approximate.max-relative-error:0.05}")
+    private double maxRelativeError;
+    
+    /**
+     * Estimates the result of {@code exactSql}, or returns null when the exact query should
+     * be run instead.
+     */
+    public QueryResponse estimate(ParsedQuery parsedQuery, String exactSql) {
+        if (parsedQuery.getQueryType() != ParsedQuery.QueryType.COUNT) {
+            return null;
+        }
+        
+        TableStatistics statistics = getTableStatistics(parsedQuery.getTableName());
+        if (statistics == null || statistics.rows < minTableRows) {
+            logger.debug("Table {} is too small or unanalyzed for an approximate answer", parsedQuery.getTableName());
+            return null;
+        }
+        
+        boolean filtered = parsedQuery.getConditionCount() > 0;
+        boolean grouped = parsedQuery.getGroupByCount() > 0;
+        
+        if (!filtered && !grouped) {
+            // Rows written since the last ANALYZE bound how far reltuples can have drifted
+            double drift = (double) statistics.modifiedSinceAnalyze / statistics.rows;
+            if (drift <= maxRelativeError) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("count", statistics.rows);
+                
+                QueryResponse response = new QueryResponse(exactSql, List.of(row));
+                response.setApproximation(new ApproximationInfo("catalog", null, null, drift));
+                return response;
+            }
+            
+            // A sample is scaled by the same row estimate, so it cannot correct stale statistics
+            return null;
+        }
+        
+        return estimateFromSample(parsedQuery, exactSql, statistics);
+    }
+    
+    private QueryResponse estimateFromSample(ParsedQuery parsedQuery, String exactSql, TableStatistics statistics) {
+        double fraction = Math.min(1.0, (double) sampleRows / statistics.rows);
+        if (fraction > MAX_SAMPLE_FRACTION) {
+            return null;
+        }
+        double samplePercent = fraction * 100;
+        
+        // SYSTEM picks whole blocks, so the number of rows actually sampled varies a lot from
+        // run to run. Counting the same blocks (same seed) lets each result be scaled by its
+        // share of the rows seen rather than by the nominal fraction.
+        int seed = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        String tableName = parsedQuery.getTableName();
+        List<Map<String, Object>> sampled = queryExecutionService.executeSampledQuery(exactSql, tableName,
+            samplePercent, seed);
+        List<Map<String, Object>> sampleSize = queryExecutionService.executeSampledQuery(
+            "SELECT COUNT(*) as count FROM " + tableName, tableName, samplePercent, seed);
+        
+        long rowsSeen = ((Number) sampleSize.get(0).get("count")).longValue();
+        if (rowsSeen == 0) {
+            return null;
+        }
+        double realizedFraction = Math.min(1.0, (double) rowsSeen / statistics.rows);
+        
+        List<Map<String, Object>> results = new ArrayList<>();
+        double worstRelativeError = 0;
+        for (Map<String, Object> sampledRow : sampled) {
+            long sampledCount = ((Number) sampledRow.get("count")).longValue();
+            if (sampledCount == 0) {
+                // An empty sample says nothing about how rare the rows are
+                return null;
+            }
+            
+            // Ratio estimate with a binomial margin and finite-population correction; rows
+            // clustered by block can make this optimistic, which the error limit absorbs
+            double share = (double) sampledCount / rowsSeen;
+            double estimate = share * statistics.rows;
+            double margin = Z_95 * statistics.rows * Math.sqrt(share * (1 - share) / rowsSeen * (1 - realizedFraction));
+            worstRelativeError = Math.max(worstRelativeError, margin / estimate);
+            
+            Map<String, Object> row = new LinkedHashMap<>(sampledRow);
+            row.put("count", Math.round(estimate));
+            row.put("count_margin", Math.round(margin));
+            results.add(row);
+        }
+        
+        if (results.isEmpty() || worstRelativeError > maxRelativeError) {
+            logger.debug("Sample estimate too uncertain (relative error {}), falling back to exact", worstRelativeError);
+            return null;
+        }
+        
+        QueryResponse response = new QueryResponse(exactSql, results);
+        response.setApproximation(new ApproximationInfo("sample", realizedFraction * 100, CONFIDENCE_LEVEL, worstRelativeError));
+        return response;
+    }
+    
+    private TableStatistics getTableStatistics(String tableName) {
+        String sql = """
+            SELECT c.reltuples::bigint AS reltuples, COALESCE(s.n_mod_since_analyze, 0) AS n_mod_since_analyze
+            FROM pg_class c
+            LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid
+            WHERE c.oid = to_regclass(?)
+        """;
+        
+        try {
+            List<Map<String, Object>> rows = databaseSchemaService.jdbcTemplateFor(tableName).queryForList(sql, tableName);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            
+            long reltuples = ((Number) rows.get(0).get("reltuples")).longValue();
+            long modified = ((Number) rows.get(0).get("n_mod_since_analyze")).longValue();
+            
+            // reltuples is -1 (or 0 on older servers) until the table is first analyzed
+            return reltuples > 0 ? new TableStatistics(reltuples, modified) : null;
+        
+        } catch (Exception e) {
+            logger.warn("Could not read statistics for table {}: {}", tableName, e.getMessage());
+            return null;
+        }
+    }
+    
+    private record TableStatistics(long rows, long modifiedSinceAnalyze) {}
+}
\ No newline at end of file
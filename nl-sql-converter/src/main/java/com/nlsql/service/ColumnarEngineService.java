@@ -0,0 +1,144 @@
+package com.nlsql.service;
+
+import com.nlsql.engine.ColumnarTable;
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.model.TableInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Serves queries on small, rarely changing tables from in-process columnar snapshots instead
+ * of a JDBC round trip. The tables listed in {@code nlsql.columnar.tables} are loaded at
+ * startup and reloaded whenever the statistics collector reports writes to them, so answers
+ * trail the database by at most one refresh interval.
+ */
+@Service
+public class ColumnarEngineService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEngineService.class);
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
+    @Autowired
+    private QueryExecutionService queryExecutionService;
+    
+    @Value("${nlsql.columnar.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${nlsql.columnar.tables:departments,products}")
+    private List<String> tables;
+    
+    @Value("${nlsql.columnar.max-rows:100000}")
+    private int maxRows;
+    
+    @Value("${nlsql.query.max-results:1000}")
+    private int maxResults;
+    
+    private final Map<String, ColumnarTable> snapshots = new ConcurrentHashMap<>();
+    
+    /**
+     * Answers a mapped query from a snapshot, or returns null when its table is not loaded or
+     * the query needs the database.
+     */
+    public QueryResponse execute(ParsedQuery parsedQuery, Function<ParsedQuery, String> sqlGenerator) {
+        if (!enabled) {
+            return null;
+        }
+        ColumnarTable snapshot = snapshots.get(parsedQuery.getTableName());
+        if (snapshot == null) {
+            return null;
+        }
+        
+        List<Map<String, Object>> results = snapshot.execute(parsedQuery, maxResults);
+        if (results == null) {
+            return null;
+        }
+        return new QueryResponse(sqlGenerator.apply(parsedQuery), results);
+    }
+    
+    @Scheduled(initialDelay = 0, fixedDelayString = "${nlsql.columnar.refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        
+        for (String tableName : tables) {
+            try {
+                long version = databaseSchemaService.getModificationCount(tableName);
+                ColumnarTable current = snapshots.get(tableName);
+                if (current != null && current.getVersion() == version) {
+                    continue;
+                }
+                load(tableName, version);
+            } catch (Exception e) {
+                logger.warn("Could not snapshot table {}: {}", tableName, e.getMessage());
+            }
+        }
+    }
+    
+    /** Column changes leave the modification count alone, so the affected snapshots are dropped and reloaded. */
+    @EventListener
+    public void onSchemaChanged(SchemaChangedEvent event) {
+        if (event.isWholeSchema()) {
+            snapshots.clear();
+        } else {
+            snapshots.remove(event.getTableName());
+        }
+        refresh();
+    }
+    
+    private void load(String tableName, long version) {
+        TableInfo tableInfo = databaseSchemaService.getTableInfo(tableName);
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        for (TableInfo.ColumnInfo column : tableInfo.getColumns()) {
+            columnTypes.put(column.getColumnName(), column.getDataType());
+        }
+        
+        List<Map<String, Object>> rows = queryExecutionService.executeQuery(
+            "SELECT * FROM " + tableName + " LIMIT " + (maxRows + 1));
+        if (rows.size() > maxRows) {
+            logger.warn("Not snapshotting {}: more than {} rows", tableName, maxRows);
+            snapshots.remove(tableName);
+            return;
+        }
+        
+        ColumnarTable snapshot = ColumnarTable.fromRows(tableName, columnTypes, tableInfo.getPrimaryKey(), rows,
+            version, isBinaryCollation(tableName));
+        if (snapshot == null) {
+            logger.warn("Not snapshotting {}: unsupported column type", tableName);
+            snapshots.remove(tableName);
+            return;
+        }
+        
+        snapshots.put(tableName, snapshot);
+        logger.info("Loaded {} rows of {} into the columnar engine (~{} bytes)", snapshot.getRowCount(),
+            tableName, snapshot.estimatedBytes());
+    }
+    
+    /**
+     * Java compares strings by code point, which matches text ORDER BY only under C/POSIX.
+     * Asked of the database the table lives in, since federated sources may differ.
+     */
+    private boolean isBinaryCollation(String tableName) {
+        try {
+            String collation = databaseSchemaService.jdbcTemplateFor(tableName).queryForObject(
+                "SELECT datcollate FROM pg_database WHERE datname = current_database()", String.class);
+            return "C".equals(collation) || "POSIX".equals(collation);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
\ No newline at end of file
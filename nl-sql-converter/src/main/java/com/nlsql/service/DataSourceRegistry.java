@@ -0,0 +1,110 @@
+package com.nlsql.service;
+
+import com.nlsql.config.FederationProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The databases of {@link FederationProperties}, most preferred first: the primary
+ * {@code spring.datasource} and one pool per configured source. Pools connect lazily, so an
+ * unreachable source only fails the questions that need it.
+ */
+@Service
+public class DataSourceRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRegistry.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private FederationProperties federationProperties;
+    
+    private List<Source> sources;
+    
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    
+    @PostConstruct
+    public void init() {
+        List<Source> configured = new ArrayList<>();
+        FederationProperties.SourceSettings primary = federationProperties.getPrimary();
+        configured.add(new Source(primary.getName(), primary.getSchemas(), primary.getPriority(), jdbcTemplate));
+        
+        for (FederationProperties.Source source : federationProperties.getSources()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("nlsql-" + source.getName());
+            pool.setJdbcUrl(source.getUrl());
+            pool.setUsername(source.getUsername());
+            pool.setPassword(source.getPassword());
+            pool.setMaximumPoolSize(source.getMaxPoolSize());
+            // Let the application start while a source is down
+            pool.setInitializationFailTimeout(-1);
+            pools.add(pool);
+            
+            configured.add(new Source(source.getName(), source.getSchemas(), source.getPriority(), new JdbcTemplate(pool)));
+            logger.info("Federated source {} at {} (schemas {}, priority {})", source.getName(), source.getUrl(),
+                source.getSchemas(), source.getPriority());
+        }
+        
+        // Stable, so equal priorities keep their configuration order with the primary first
+        configured.sort(Comparator.comparingInt(Source::getPriority));
+        sources = List.copyOf(configured);
+    }
+    
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+    
+    public List<Source> getSources() {
+        return sources;
+    }
+    
+    public Source getPrimary() {
+        return sources.stream()
+            .filter(source -> source.getName().equals(federationProperties.getPrimary().getName()))
+            .findFirst()
+            .orElseThrow();
+    }
+    
+    public static final class Source {
+        
+        private final String name;
+        private final List<String> schemas;
+        private final int priority;
+        private final JdbcTemplate jdbcTemplate;
+        
+        Source(String name, List<String> schemas, int priority, JdbcTemplate jdbcTemplate) {
+            this.name = name;
+            this.schemas = List.copyOf(schemas);
+            this.priority = priority;
+            this.jdbcTemplate = jdbcTemplate;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public List<String> getSchemas() {
+            return schemas;
+        }
+        
+        public int getPriority() {
+            return priority;
+        }
+        
+        public JdbcTemplate getJdbcTemplate() {
+            return jdbcTemplate;
+        }
+    }
+}
\ No newline at end of file
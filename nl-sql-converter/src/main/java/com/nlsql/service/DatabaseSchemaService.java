@@ -2,83 +2,67 @@ package com.nlsql.service;
 
 import com.nlsql.model.ParsedQuery;
 import com.nlsql.model.TableInfo;
+import com.nlsql.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class DatabaseSchemaService {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseSchemaService.class);
     
+    private static final int MAX_SUGGESTIONS = 3;
+    private static final double MIN_SUGGESTION_SIMILARITY = 0.5;
+    
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private DataSourceRegistry dataSourceRegistry;
+    
+    // Also written by the schema change listener thread
+    private final Map<String, TableInfo> schemaCache = new ConcurrentHashMap<>();
+    
+    // Table name -> where it lives; public tables go by their bare name, others by schema.table
+    private volatile Map<String, TableLocation> catalog;
     
-    private Map<String, TableInfo> schemaCache = new HashMap<>();
+    // The catalog's keys, kept as a list since question parsing walks them for every query
+    private volatile List<String> catalogTableNames = List.of();
     
+    // Source name -> schema -> its tables as last listed, shadowed ones included, so a schema
+    // can be listed again on its own
+    private final Map<String, Map<String, List<String>>> listings = new ConcurrentHashMap<>();
+    
+    /**
+     * Resolves the query's table and column references to the names the schema uses. Resolved
+     * names are the catalog's and table metadata's interned instances; a query that already uses
+     * them all is returned as is.
+     */
     public ParsedQuery mapToSchema(ParsedQuery parsedQuery) {
         logger.debug("Mapping parsed query to database schema");
         
         // Ensure table exists and get correct table name
         String actualTableName = mapTableName(parsedQuery.getTableName());
-        parsedQuery.setTableName(actualTableName);
         
         // Get table schema information
         TableInfo tableInfo = getTableInfo(actualTableName);
         
-        // Map column names to actual column names
-        if (parsedQuery.getColumns() != null) {
-            List<String> mappedColumns = new ArrayList<>();
-            for (String column : parsedQuery.getColumns()) {
-                String actualColumn = mapColumnName(column, tableInfo);
-                if (actualColumn != null) {
-                    mappedColumns.add(actualColumn);
-                }
-            }
-            parsedQuery.setColumns(mappedColumns.isEmpty() ? null : mappedColumns);
-        }
-        
-        // Map WHERE condition column names
-        if (parsedQuery.getWhereConditions() != null) {
-            Map<String, Object> mappedConditions = new HashMap<>();
-            for (Map.Entry<String, Object> entry : parsedQuery.getWhereConditions().entrySet()) {
-                String actualColumn = mapColumnName(entry.getKey(), tableInfo);
-                if (actualColumn != null) {
-                    mappedConditions.put(actualColumn, entry.getValue());
-                }
-            }
-            parsedQuery.setWhereConditions(mappedConditions);
-        }
-        
-        // Map GROUP BY columns
-        if (parsedQuery.getGroupByColumns() != null) {
-            List<String> mappedGroupBy = new ArrayList<>();
-            for (String column : parsedQuery.getGroupByColumns()) {
-                String actualColumn = mapColumnName(column, tableInfo);
-                if (actualColumn != null) {
-                    mappedGroupBy.add(actualColumn);
-                }
-            }
-            parsedQuery.setGroupByColumns(mappedGroupBy.isEmpty() ? null : mappedGroupBy);
-        }
-        
-        // Map ORDER BY column
-        if (parsedQuery.getOrderBy() != null) {
-            String actualColumn = mapColumnName(parsedQuery.getOrderBy(), tableInfo);
-            parsedQuery.setOrderBy(actualColumn);
-        }
-        
-        return parsedQuery;
+        // Map column, WHERE, GROUP BY and ORDER BY names to actual column names
+        return parsedQuery.mapNames(actualTableName, column -> mapColumnName(column, tableInfo));
     }
     
     private String mapTableName(String tableName) {
-        // Check if table exists as-is
-        if (tableExists(tableName)) {
-            return tableName;
+        // Check if table exists as-is, answering with the catalog's own instance of the name
+        TableLocation location = tableName == null ? null : getCatalog().get(tableName);
+        if (location != null) {
+            return location.name();
         }
         
         // Try common variations
@@ -90,46 +74,87 @@ public class DatabaseSchemaService {
         };
         
         for (String variation : variations) {
-            if (tableExists(variation)) {
-                return variation;
+            location = getCatalog().get(variation);
+            if (location != null) {
+                return location.name();
             }
         }
         
-        // Default fallback - create sample table if it doesn't exist
-        createSampleTables();
-        return "employees";
+        // Resolved from the in-memory catalog alone, so unknown tables cost no database work
+        throw new TableNotFoundException(tableName, suggestTableNames(tableName));
     }
     
+    /** Catalog tables whose names are closest to {@code tableName}, most similar first. */
+    public List<String> suggestTableNames(String tableName) {
+        record Candidate(String tableName, double similarity) {}
+        
+        List<Candidate> candidates = new ArrayList<>();
+        for (String candidate : getAllTableNames()) {
+            // A schema-qualified table is as good a match as its bare name
+            String bareName = candidate.substring(candidate.lastIndexOf('.') + 1);
+            double similarity = Math.max(StringUtils.calculateSimilarity(tableName, candidate),
+                StringUtils.calculateSimilarity(tableName, bareName));
+            if (similarity >= MIN_SUGGESTION_SIMILARITY) {
+                candidates.add(new Candidate(candidate, similarity));
+            }
+        }
+        
+        return candidates.stream()
+            .sorted(Comparator.comparingDouble(Candidate::similarity).reversed().thenComparing(Candidate::tableName))
+            .limit(MAX_SUGGESTIONS)
+            .map(Candidate::tableName)
+            .toList();
+    }
+    
+    // Runs for every name of every question, so the loops index rather than iterate and compare
+    // without lower-casing copies; wide tables would otherwise allocate per column
     private String mapColumnName(String columnName, TableInfo tableInfo) {
+        List<TableInfo.ColumnInfo> columns = tableInfo.getColumns();
+        
+        // Already the schema's own name; column names are interned when metadata is loaded
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getColumnName() == columnName) {
+                return columnName;
+            }
+        }
+        
         // Direct match
-        for (TableInfo.ColumnInfo column : tableInfo.getColumns()) {
-            if (column.getColumnName().equalsIgnoreCase(columnName)) {
-                return column.getColumnName();
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getColumnName().equalsIgnoreCase(columnName)) {
+                return columns.get(i).getColumnName();
             }
         }
         
         // Try aliases
-        for (TableInfo.ColumnInfo column : tableInfo.getColumns()) {
-            if (column.getAliases() != null) {
-                for (String alias : column.getAliases()) {
-                    if (alias.equalsIgnoreCase(columnName)) {
-                        return column.getColumnName();
-                    }
+        for (int i = 0; i < columns.size(); i++) {
+            List<String> aliases = columns.get(i).getAliases();
+            for (int a = 0; aliases != null && a < aliases.size(); a++) {
+                if (aliases.get(a).equalsIgnoreCase(columnName)) {
+                    return columns.get(i).getColumnName();
                 }
             }
         }
         
         // Partial match
-        for (TableInfo.ColumnInfo column : tableInfo.getColumns()) {
-            if (column.getColumnName().toLowerCase().contains(columnName.toLowerCase()) ||
-                columnName.toLowerCase().contains(column.getColumnName().toLowerCase())) {
-                return column.getColumnName();
+        for (int i = 0; i < columns.size(); i++) {
+            String actualName = columns.get(i).getColumnName();
+            if (containsIgnoreCase(actualName, columnName) || containsIgnoreCase(columnName, actualName)) {
+                return actualName;
             }
         }
         
         return null;
     }
     
+    private static boolean containsIgnoreCase(String text, String part) {
+        for (int start = 0; start + part.length() <= text.length(); start++) {
+            if (text.regionMatches(true, start, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     public TableInfo getTableInfo(String tableName) {
         if (schemaCache.containsKey(tableName)) {
             return schemaCache.get(tableName);
@@ -137,15 +162,19 @@ public class DatabaseSchemaService {
         
         TableInfo tableInfo = new TableInfo();
         tableInfo.setTableName(tableName);
+        TableLocation location = locate(tableName);
+        JdbcTemplate jdbcTemplate = location.source().getJdbcTemplate();
+        tableInfo.setSourceName(location.source().getName());
         
         try {
-            String sql = "SELECT column_name, data_type, is_nullable FROM information_schema.columns WHERE table_name = ? ORDER BY ordinal_position";
-            List<Map<String, Object>> columns = jdbcTemplate.queryForList(sql, tableName);
+            String sql = "SELECT column_name, data_type, is_nullable FROM information_schema.columns WHERE table_name = ? AND table_schema = ? ORDER BY ordinal_position";
+            List<Map<String, Object>> columns = jdbcTemplate.queryForList(sql, location.table(), location.schema());
             
             List<TableInfo.ColumnInfo> columnInfos = new ArrayList<>();
             for (Map<String, Object> column : columns) {
                 TableInfo.ColumnInfo columnInfo = new TableInfo.ColumnInfo();
-                columnInfo.setColumnName((String) column.get("column_name"));
+                // Interned, so the literal names the parser emits are the very same instances
+                columnInfo.setColumnName(((String) column.get("column_name")).intern());
                 columnInfo.setDataType((String) column.get("data_type"));
                 columnInfo.setNullable("YES".equals(column.get("is_nullable")));
                 
@@ -156,6 +185,8 @@ public class DatabaseSchemaService {
             }
             
             tableInfo.setColumns(columnInfos);
+            tableInfo.setPrimaryKey(getPrimaryKey(jdbcTemplate, location));
+            tableInfo.setIndexes(getIndexes(jdbcTemplate, tableName));
             schemaCache.put(tableName, tableInfo);
             
         } catch (Exception e) {
@@ -167,6 +198,57 @@ public class DatabaseSchemaService {
         return tableInfo;
     }
     
+    /**
+     * Cumulative rows inserted, updated and deleted in a table, as tracked by the statistics
+     * collector. Callers compare successive values to detect that a table changed.
+     */
+    public long getModificationCount(String tableName) {
+        String sql = """
+            SELECT COALESCE(n_tup_ins + n_tup_upd + n_tup_del, 0)
+            FROM pg_stat_user_tables
+            WHERE relid = to_regclass(?)
+        """;
+        Long count = jdbcTemplateFor(tableName).queryForObject(sql, Long.class, tableName);
+        return count == null ? 0 : count;
+    }
+    
+    private String getPrimaryKey(JdbcTemplate jdbcTemplate, TableLocation location) {
+        String sql = """
+            SELECT kcu.column_name
+            FROM information_schema.table_constraints tc
+            JOIN information_schema.key_column_usage kcu
+              ON tc.constraint_name = kcu.constraint_name AND tc.table_schema = kcu.table_schema
+            WHERE tc.table_name = ? AND tc.table_schema = ? AND tc.constraint_type = 'PRIMARY KEY'
+            ORDER BY kcu.ordinal_position
+        """;
+        List<Map<String, Object>> keyColumns = jdbcTemplate.queryForList(sql, location.table(), location.schema());
+        
+        // Only single-column keys can serve as a keyset tiebreaker
+        return keyColumns.size() == 1 ? ((String) keyColumns.get(0).get("column_name")).intern() : null;
+    }
+    
+    private List<TableInfo.IndexInfo> getIndexes(JdbcTemplate jdbcTemplate, String tableName) {
+        // Expression keys (attnum 0) drop out of the join; partial indexes are skipped entirely
+        String sql = """
+            SELECT i.relname AS index_name, a.attname AS column_name
+            FROM pg_index x
+            JOIN pg_class i ON i.oid = x.indexrelid
+            CROSS JOIN LATERAL unnest(x.indkey) WITH ORDINALITY AS k(attnum, position)
+            JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = k.attnum
+            WHERE x.indrelid = to_regclass(?) AND x.indpred IS NULL AND x.indexprs IS NULL
+            ORDER BY i.relname, k.position
+        """;
+        Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(sql, tableName)) {
+            columnsByIndex.computeIfAbsent((String) row.get("index_name"), name -> new ArrayList<>())
+                .add(((String) row.get("column_name")).intern());
+        }
+        
+        List<TableInfo.IndexInfo> indexes = new ArrayList<>();
+        columnsByIndex.forEach((name, columns) -> indexes.add(new TableInfo.IndexInfo(name, columns)));
+        return indexes;
+    }
+    
     private List<String> getColumnAliases(String columnName) {
         Map<String, List<String>> aliases = Map.of(
             "id", Arrays.asList("identifier", "emp_id", "employee_id"),
@@ -194,63 +276,157 @@ public class DatabaseSchemaService {
     }
     
     private boolean tableExists(String tableName) {
-        try {
-            String sql = "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = ?";
-            Integer count = jdbcTemplate.queryForObject(sql, Integer.class, tableName);
-            return count != null && count > 0;
-        } catch (Exception e) {
-            logger.debug("Error checking table existence: {}", e.getMessage());
-            return false;
-        }
+        return getCatalog().containsKey(tableName);
     }
     
-    private void createSampleTables() {
-        try {
-            // Create employees table if it doesn't exist
-            String createEmployeesTable = """
-                CREATE TABLE IF NOT EXISTS employees (
-                    id SERIAL PRIMARY KEY,
-                    name VARCHAR(100) NOT NULL,
-                    email VARCHAR(100),
-                    city VARCHAR(50),
-                    department VARCHAR(50),
-                    salary NUMERIC(10,2),
-                    age INTEGER
-                )
-            """;
-            
-            jdbcTemplate.execute(createEmployeesTable);
-            
-            // Insert sample data if table is empty
-            String countSql = "SELECT COUNT(*) FROM employees";
-            Integer count = jdbcTemplate.queryForObject(countSql, Integer.class);
-            
-            if (count == 0) {
-                String insertSample = """
-                    INSERT INTO employees (name, email, city, department, salary, age) VALUES
-                    ('John Doe', 'john.doe@company.com', 'Mumbai', 'Engineering', 75000, 30),
-                    ('Jane Smith', 'jane.smith@company.com', 'Delhi', 'Marketing', 65000, 28),
-                    ('Bob Johnson', 'bob.johnson@company.com', 'Mumbai', 'Engineering', 80000, 35),
-                    ('Alice Brown', 'alice.brown@company.com', 'Bangalore', 'HR', 60000, 32),
-                    ('Charlie Wilson', 'charlie.wilson@company.com', 'Mumbai', 'Sales', 70000, 29)
-                """;
+    public List<String> getAllTableNames() {
+        getCatalog();
+        return catalogTableNames;
+    }
+    
+    /** The pool of the source that owns a table; the primary one for tables no source has. */
+    public JdbcTemplate jdbcTemplateFor(String tableName) {
+        return locate(tableName).source().getJdbcTemplate();
+    }
+    
+    public String getSourceName(String tableName) {
+        return locate(tableName).source().getName();
+    }
+    
+    /**
+     * Lists the tables of every configured schema of every source. Sources are visited most
+     * preferred first, so a name found in several keeps the location with the lowest priority.
+     * A source that cannot be reached keeps the tables it had before.
+     */
+    @Scheduled(initialDelayString = "${nlsql.federation.catalog-refresh-interval-ms:60000}",
+        fixedDelayString = "${nlsql.federation.catalog-refresh-interval-ms:60000}")
+    public void refreshCatalog() {
+        refreshCatalog(null, null);
+    }
+    
+    /**
+     * Lists the tables of one source again, or of one schema of it, and rebuilds the catalog
+     * from those and the other schemas' previous listings. Null lists everything again.
+     */
+    private synchronized void refreshCatalog(String sourceName, String schemaName) {
+        Map<String, TableLocation> previous = catalog == null ? Map.of() : catalog;
+        Map<String, TableLocation> tables = new LinkedHashMap<>();
+        int shadowed = 0;
+        int listed = 0;
+        
+        for (DataSourceRegistry.Source source : dataSourceRegistry.getSources()) {
+            Map<String, List<String>> sourceListings = listings.computeIfAbsent(source.getName(), s -> new ConcurrentHashMap<>());
+            for (String schema : source.getSchemas()) {
+                List<String> tableNames = sourceListings.get(schema);
+                boolean requested = (sourceName == null || sourceName.equals(source.getName()))
+                    && (schemaName == null || schemaName.equals(schema));
+                if (requested || tableNames == null) {
+                    try {
+                        tableNames = source.getJdbcTemplate().queryForList(
+                            "SELECT table_name FROM information_schema.tables WHERE table_schema = ?", String.class, schema);
+                        sourceListings.put(schema, tableNames);
+                        listed++;
+                    } catch (Exception e) {
+                        logger.warn("Could not list tables of source {} schema {}: {}", source.getName(), schema, e.getMessage());
+                        if (tableNames == null) {
+                            tableNames = List.of();
+                        }
+                    }
+                }
                 
-                jdbcTemplate.execute(insertSample);
-                logger.info("Sample data inserted into employees table");
+                for (String table : tableNames) {
+                    // Interned like column names, so the parser's table aliases are these instances
+                    String name = ("public".equals(schema) ? table : schema + "." + table).intern();
+                    TableLocation existing = tables.putIfAbsent(name, new TableLocation(name, source, schema, table));
+                    if (existing != null) {
+                        shadowed++;
+                        logger.debug("Table {} of source {} is shadowed by source {}", name, source.getName(),
+                            existing.source().getName());
+                    }
+                }
             }
-            
-        } catch (Exception e) {
-            logger.error("Error creating sample tables: {}", e.getMessage());
         }
+        
+        if (!tables.keySet().equals(previous.keySet())) {
+            logger.info("Catalog holds {} tables from {} sources ({} shadowed by a preferred source), {} schemas listed",
+                tables.size(), dataSourceRegistry.getSources().size(), shadowed, listed);
+        }
+        catalogTableNames = List.copyOf(tables.keySet());
+        catalog = tables;
     }
     
-    public List<String> getAllTableNames() {
-        try {
-            String sql = "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public'";
-            return jdbcTemplate.queryForList(sql, String.class);
-        } catch (Exception e) {
-            logger.error("Error retrieving table names: {}", e.getMessage());
-            return Arrays.asList("employees");
+    /**
+     * Reloads what a DDL statement may have changed: the catalog, only where tables may have been
+     * created, dropped or renamed, and the cached metadata of the affected table alone, column
+     * aliases and indexes included. Runs before the other listeners, which read the result.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSchemaChanged(SchemaChangedEvent event) {
+        String changedTable = event.getTableName();
+        if (event.isWholeSchema()) {
+            refreshCatalog(event.getSourceName(), null);
+        } else if (!tableExists(changedTable)) {
+            // Created, or renamed or moved from a name that may be in any schema of the source
+            if (listsSchema(event.getSourceName(), schemaOf(changedTable))) {
+                refreshCatalog(event.getSourceName(), null);
+            }
+        } else if (event.getCommand().startsWith("DROP")) {
+            refreshCatalog(event.getSourceName(), schemaOf(changedTable));
+        }
+        // Dropped and renamed tables
+        schemaCache.keySet().removeIf(tableName -> !tableExists(tableName));
+        
+        List<String> affected = new ArrayList<>();
+        schemaCache.forEach((tableName, tableInfo) -> {
+            if (event.isWholeSchema()
+                    ? event.getSourceName().equals(tableInfo.getSourceName())
+                    : tableName.equals(event.getTableName())) {
+                affected.add(tableName);
+            }
+        });
+        
+        for (String tableName : affected) {
+            schemaCache.remove(tableName);
+            if (tableExists(tableName)) {
+                TableInfo tableInfo = getTableInfo(tableName);
+                logger.info("Reloaded schema of {}: {} columns, {} indexes", tableName, tableInfo.getColumns().size(),
+                    tableInfo.getIndexes() == null ? 0 : tableInfo.getIndexes().size());
+            }
+        }
+    }
+    
+    private boolean listsSchema(String sourceName, String schema) {
+        for (DataSourceRegistry.Source source : dataSourceRegistry.getSources()) {
+            if (source.getName().equals(sourceName)) {
+                return source.getSchemas().contains(schema);
+            }
         }
+        return false;
+    }
+    
+    private static String schemaOf(String tableName) {
+        int dot = tableName.indexOf('.');
+        return dot < 0 ? "public" : tableName.substring(0, dot);
     }
+    
+    private Map<String, TableLocation> getCatalog() {
+        if (catalog == null) {
+            refreshCatalog();
+        }
+        return catalog;
+    }
+    
+    private TableLocation locate(String tableName) {
+        TableLocation location = tableName == null ? null : getCatalog().get(tableName);
+        if (location != null) {
+            return location;
+        }
+        int dot = tableName == null ? -1 : tableName.indexOf('.');
+        return dot < 0
+            ? new TableLocation(tableName, dataSourceRegistry.getPrimary(), "public", tableName)
+            : new TableLocation(tableName, dataSourceRegistry.getPrimary(), tableName.substring(0, dot), tableName.substring(dot + 1));
+    }
+    
+    private record TableLocation(String name, DataSourceRegistry.Source source, String schema, String table) {}
 }
\ No newline at end of file
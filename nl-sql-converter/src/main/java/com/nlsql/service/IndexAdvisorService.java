@@ -0,0 +1,469 @@
+package com.nlsql.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.TableInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suggests indexes for the queries the converter actually runs. Each statement sent to the
+ * database is reduced to a candidate index: its equality columns followed by its ORDER BY
+ * column. Candidates an existing index already serves are reported as covered; the most
+ * expensive of the rest (executions times p95 latency from {@link WorkloadAnalyticsService})
+ * are EXPLAINed, and those whose plan would get markedly cheaper become ranked
+ * {@code CREATE INDEX} recommendations.
+ *
+ * Nothing is ever created. The benefit is the planner's cost for the current plan minus a
+ * rough cost of reading the matching rows through an index, multiplied by executions; it is
+ * meant for ranking, and a recommendation should be checked with EXPLAIN once applied.
+ */
+@Service
+public class IndexAdvisorService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IndexAdvisorService.class);
+    
+    // Planner cost of fetching one row through an index: roughly one random heap page
+    private static final double INDEX_ROW_COST = 4.0;
+    
+    // An index that saves less than this share of the plan cost is not worth its write overhead
+    private static final double MIN_COST_REDUCTION = 0.1;
+    
+    // Distinct statement shapes kept per candidate for EXPLAIN
+    private static final int MAX_SHAPES_PER_CANDIDATE = 8;
+    
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+    
+    private static final String WHERE = "where";
+    private static final String ORDER_BY = "order_by";
+    private static final String GROUP_BY = "group_by";
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
+    @Autowired
+    private QueryExecutionService queryExecutionService;
+    
+    @Autowired
+    private WorkloadAnalyticsService workloadAnalyticsService;
+    
+    @Value("${nlsql.index-advisor.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.index-advisor.max-candidates:1000}")
+    private int maxCandidates;
+    
+    @Value("${nlsql.index-advisor.min-executions:3}")
+    private long minExecutions;
+    
+    @Value("${nlsql.index-advisor.explain-limit:10}")
+    private int explainLimit;
+    
+    @Value("${nlsql.index-advisor.max-selectivity:0.2}")
+    private double maxSelectivity;
+    
+    @Value("${nlsql.index-advisor.report-ttl-ms:60000}")
+    private long reportTtlMs;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final ConcurrentHashMap<String, Candidate> candidates = new ConcurrentHashMap<>();
+    
+    // The last report, so reading it repeatedly does not EXPLAIN against the database each time
+    private volatile CachedReport cachedReport;
+    
+    // table -> column -> clause -> uses
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, LongAdder>>> columnUsage =
+        new ConcurrentHashMap<>();
+    
+    /** Notes the columns a statement about to be sent to the database filters, sorts and groups on. */
+    public void recordUsage(ParsedQuery parsedQuery, String sql) {
+        if (!enabled || parsedQuery.getTableName() == null) {
+            return;
+        }
+        String tableName = parsedQuery.getTableName();
+        
+        Set<String> equalityColumns = new TreeSet<>();
+        for (int i = 0; i < parsedQuery.getConditionCount(); i++) {
+            equalityColumns.add(parsedQuery.getConditionColumn(i));
+        }
+        equalityColumns.forEach(column -> countUse(tableName, column, WHERE));
+        for (int i = 0; i < parsedQuery.getGroupByCount(); i++) {
+            countUse(tableName, parsedQuery.getGroupByColumn(i), GROUP_BY);
+        }
+        String sortColumn = parsedQuery.getOrderBy();
+        if (sortColumn != null) {
+            countUse(tableName, sortColumn, ORDER_BY);
+        }
+        
+        // Nothing for an index to narrow or presort
+        if (equalityColumns.isEmpty() && sortColumn == null) {
+            return;
+        }
+        
+        String key = tableName + "(" + String.join(",", equalityColumns) + ";" + sortColumn + ")";
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            if (candidates.size() >= maxCandidates) {
+                return;
+            }
+            candidate = candidates.computeIfAbsent(key,
+                k -> new Candidate(tableName, new ArrayList<>(equalityColumns), sortColumn));
+        }
+        candidate.executions.increment();
+        
+        // The latest statement of each shape stands in for the others when EXPLAINed
+        String shape = WorkloadAnalyticsService.fingerprint(sql);
+        Sample sample = candidate.samples.get(shape);
+        if (sample == null && candidate.samples.size() < MAX_SHAPES_PER_CANDIDATE) {
+            sample = candidate.samples.computeIfAbsent(shape, k -> new Sample());
+        }
+        if (sample != null) {
+            sample.executions.increment();
+            sample.sql = sql;
+        }
+    }
+    
+    private void countUse(String tableName, String column, String clause) {
+        columnUsage.computeIfAbsent(tableName, t -> new ConcurrentHashMap<>())
+            .computeIfAbsent(column, c -> new ConcurrentHashMap<>())
+            .computeIfAbsent(clause, c -> new LongAdder())
+            .increment();
+    }
+    
+    /**
+     * Ranked recommendations, the candidates existing indexes already serve, and existing
+     * indexes on the queried tables that no candidate or plan made use of. Built at most once
+     * per {@code nlsql.index-advisor.report-ttl-ms}; callers in between get the same report.
+     */
+    public Map<String, Object> report() {
+        CachedReport cached = cachedReport;
+        if (cached != null && System.currentTimeMillis() - cached.builtAtMillis < reportTtlMs) {
+            return cached.report;
+        }
+        synchronized (this) {
+            cached = cachedReport;
+            if (cached == null || System.currentTimeMillis() - cached.builtAtMillis >= reportTtlMs) {
+                cached = new CachedReport(buildReport(), System.currentTimeMillis());
+                cachedReport = cached;
+            }
+            return cached.report;
+        }
+    }
+    
+    private Map<String, Object> buildReport() {
+        List<Map<String, Object>> covered = new ArrayList<>();
+        List<Candidate> uncovered = new ArrayList<>();
+        Set<String> usedIndexes = new HashSet<>();
+        
+        for (Candidate candidate : candidates.values()) {
+            if (candidate.executions.sum() < minExecutions) {
+                continue;
+            }
+            TableInfo tableInfo = databaseSchemaService.getTableInfo(candidate.tableName);
+            if (!candidate.columns().stream().allMatch(column -> tableInfo.getColumn(column) != null)) {
+                continue;
+            }
+            TableInfo.IndexInfo index = findServingIndex(tableInfo, candidate);
+            if (index != null) {
+                usedIndexes.add(index.getIndexName());
+                covered.add(describeCovered(candidate, index));
+            } else {
+                uncovered.add(candidate);
+            }
+        }
+        
+        // EXPLAIN only the candidates costing the most wall-clock time
+        uncovered.sort(Comparator.comparingDouble(this::observedCost).reversed());
+        List<Map<String, Object>> recommendations = new ArrayList<>();
+        for (Candidate candidate : uncovered.subList(0, Math.min(explainLimit, uncovered.size()))) {
+            Map<String, Object> recommendation = recommend(candidate, usedIndexes);
+            if (recommendation != null) {
+                recommendations.add(recommendation);
+            }
+        }
+        recommendations.sort(Comparator.comparingDouble(
+            (Map<String, Object> recommendation) -> (Double) recommendation.get("estimated_benefit")).reversed());
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("candidates", candidates.size());
+        report.put("recommendations", recommendations);
+        report.put("covered", covered);
+        report.put("not_explained", Math.max(0, uncovered.size() - explainLimit));
+        report.put("unused_indexes", unusedIndexes(usedIndexes));
+        report.put("column_usage", columnUsageReport());
+        report.put("generated_at", Instant.now().toString());
+        return report;
+    }
+    
+    public void reset() {
+        candidates.clear();
+        columnUsage.clear();
+        cachedReport = null;
+    }
+    
+    /**
+     * An index whose leading columns are the candidate's equality columns, in any order,
+     * followed by its sort column, so it both narrows the rows and returns them in order.
+     */
+    private TableInfo.IndexInfo findServingIndex(TableInfo tableInfo, Candidate candidate) {
+        if (tableInfo.getIndexes() == null) {
+            return null;
+        }
+        int width = candidate.equalityColumns.size();
+        for (TableInfo.IndexInfo index : tableInfo.getIndexes()) {
+            List<String> columns = index.getColumns();
+            if (columns.size() < width || !new HashSet<>(columns.subList(0, width)).equals(new HashSet<>(candidate.equalityColumns))) {
+                continue;
+            }
+            if (candidate.sortColumn == null || candidate.equalityColumns.contains(candidate.sortColumn)
+                    || (columns.size() > width && columns.get(width).equals(candidate.sortColumn))) {
+                return index;
+            }
+        }
+        return null;
+    }
+    
+    private double observedCost(Candidate candidate) {
+        double cost = 0;
+        for (Sample sample : candidate.samples.values()) {
+            double p95 = workloadAnalyticsService.latencyPercentileMillis(sample.sql, 95);
+            // Shapes outside the workload top-K still rank by frequency
+            cost += sample.executions.sum() * Math.max(p95, 1.0);
+        }
+        return cost;
+    }
+    
+    /**
+     * EXPLAINs each statement shape of the candidate and keeps those the index would make
+     * markedly cheaper. Indexes the current plans use are added to {@code usedIndexes}.
+     */
+    private Map<String, Object> recommend(Candidate candidate, Set<String> usedIndexes) {
+        double tableRows = tableRows(candidate.tableName);
+        if (tableRows <= 0) {
+            return null;
+        }
+        
+        List<Map<String, Object>> statements = new ArrayList<>();
+        double benefit = 0;
+        for (Sample sample : candidate.samples.values()) {
+            String sql = sample.sql;
+            Plan plan = explain(candidate.tableName, sql);
+            if (plan == null) {
+                continue;
+            }
+            usedIndexes.addAll(plan.indexesUsed);
+            
+            double costAfter = indexedCost(candidate, plan, tableRows);
+            double saving = plan.totalCost - costAfter;
+            if (costAfter < 0 || saving < plan.totalCost * MIN_COST_REDUCTION) {
+                continue;
+            }
+            long executions = sample.executions.sum();
+            benefit += saving * executions;
+            
+            // The shape only, as in the workload report: literals are other users' filter values
+            Map<String, Object> statement = new LinkedHashMap<>();
+            statement.put("sql", WorkloadAnalyticsService.fingerprint(sql));
+            statement.put("executions", executions);
+            statement.put("p95_ms", workloadAnalyticsService.latencyPercentileMillis(sql, 95));
+            statement.put("current_plan", String.join(", ", plan.nodeTypes) + (plan.sorts ? " + Sort" : ""));
+            statement.put("estimated_rows", Math.round(plan.matchingRows));
+            statement.put("estimated_cost_before", round(plan.totalCost));
+            statement.put("estimated_cost_after", round(costAfter));
+            statements.add(statement);
+        }
+        if (statements.isEmpty()) {
+            return null;
+        }
+        
+        List<String> columns = candidate.columns();
+        Map<String, Object> recommendation = new LinkedHashMap<>();
+        recommendation.put("table", candidate.tableName);
+        recommendation.put("columns", columns);
+        recommendation.put("statement", createIndexStatement(candidate.tableName, columns));
+        recommendation.put("executions", candidate.executions.sum());
+        recommendation.put("table_rows", Math.round(tableRows));
+        // Planner cost units saved across all executions seen so far
+        recommendation.put("estimated_benefit", round(benefit));
+        recommendation.put("statements", statements);
+        return recommendation;
+    }
+    
+    private Plan explain(String tableName, String sql) {
+        try {
+            queryExecutionService.validateSQL(sql);
+            String json = databaseSchemaService.jdbcTemplateFor(tableName).queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+            JsonNode root = objectMapper.readTree(json).get(0).get("Plan");
+            
+            Plan plan = new Plan();
+            plan.totalCost = root.path("Total Cost").asDouble();
+            if ("Limit".equals(root.path("Node Type").asText())) {
+                plan.limitRows = root.path("Plan Rows").asDouble();
+            }
+            // Plans name relations without their schema
+            walk(root, tableName.substring(tableName.lastIndexOf('.') + 1), plan);
+            return plan;
+        } catch (Exception e) {
+            logger.warn("Could not explain {}: {}", WorkloadAnalyticsService.fingerprint(sql), e.getMessage());
+            return null;
+        }
+    }
+    
+    private void walk(JsonNode node, String tableName, Plan plan) {
+        String nodeType = node.path("Node Type").asText();
+        if (node.has("Index Name")) {
+            plan.indexesUsed.add(node.get("Index Name").asText());
+        }
+        if ("Sort".equals(nodeType)) {
+            plan.sorts = true;
+        }
+        // The scan on the table estimates how many rows match the filter
+        if (tableName.equals(node.path("Relation Name").asText())) {
+            plan.nodeTypes.add(nodeType);
+            plan.matchingRows = node.path("Plan Rows").asDouble();
+        }
+        for (JsonNode child : node.path("Plans")) {
+            walk(child, tableName, plan);
+        }
+    }
+    
+    private double tableRows(String tableName) {
+        Double rows = databaseSchemaService.jdbcTemplateFor(tableName).queryForObject(
+            "SELECT GREATEST(reltuples, 0)::float8 FROM pg_class WHERE oid = to_regclass(?)", Double.class, tableName);
+        return rows == null ? 0 : rows;
+    }
+    
+    /**
+     * Rough cost of the statement through the candidate index: one random page per row read
+     * plus the descent. Returns -1 when the filter is too unselective for an index to help.
+     */
+    private double indexedCost(Candidate candidate, Plan plan, double tableRows) {
+        if (plan.matchingRows < 0) {
+            return -1;
+        }
+        // With an index ending in the sort column, a LIMIT stops the scan after that many rows
+        boolean presorted = candidate.sortColumn != null && plan.limitRows > 0;
+        if (!presorted && plan.matchingRows / tableRows > maxSelectivity) {
+            return -1;
+        }
+        double rowsRead = presorted ? Math.min(plan.matchingRows, plan.limitRows) : plan.matchingRows;
+        return rowsRead * INDEX_ROW_COST + Math.log(tableRows + 1) / Math.log(2);
+    }
+    
+    private static String createIndexStatement(String tableName, List<String> columns) {
+        String name = "idx_" + tableName.replace('.', '_') + "_" + String.join("_", columns);
+        if (name.length() > MAX_IDENTIFIER_LENGTH) {
+            name = name.substring(0, MAX_IDENTIFIER_LENGTH);
+        }
+        return "CREATE INDEX CONCURRENTLY " + name + " ON " + tableName + " (" + String.join(", ", columns) + ")";
+    }
+    
+    private Map<String, Object> describeCovered(Candidate candidate, TableInfo.IndexInfo index) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("table", candidate.tableName);
+        description.put("columns", candidate.columns());
+        description.put("index", index.getIndexName());
+        description.put("executions", candidate.executions.sum());
+        return description;
+    }
+    
+    private List<Map<String, Object>> unusedIndexes(Set<String> usedIndexes) {
+        List<Map<String, Object>> unused = new ArrayList<>();
+        for (String tableName : new TreeSet<>(columnUsage.keySet())) {
+            TableInfo tableInfo = databaseSchemaService.getTableInfo(tableName);
+            if (tableInfo.getIndexes() == null) {
+                continue;
+            }
+            for (TableInfo.IndexInfo index : tableInfo.getIndexes()) {
+                // Pagination relies on the primary key index even when no candidate names it
+                boolean primaryKey = index.getColumns().equals(List.of(String.valueOf(tableInfo.getPrimaryKey())));
+                if (!primaryKey && !usedIndexes.contains(index.getIndexName())) {
+                    Map<String, Object> description = new LinkedHashMap<>();
+                    description.put("table", tableName);
+                    description.put("index", index.getIndexName());
+                    description.put("columns", index.getColumns());
+                    unused.add(description);
+                }
+            }
+        }
+        return unused;
+    }
+    
+    private Map<String, Object> columnUsageReport() {
+        Map<String, Object> report = new TreeMap<>();
+        columnUsage.forEach((tableName, columns) -> {
+            Map<String, Object> tableReport = new TreeMap<>();
+            columns.forEach((column, clauses) -> {
+                Map<String, Long> counts = new TreeMap<>();
+                clauses.forEach((clause, count) -> counts.put(clause, count.sum()));
+                tableReport.put(column, counts);
+            });
+            report.put(tableName, tableReport);
+        });
+        return report;
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+    
+    private record CachedReport(Map<String, Object> report, long builtAtMillis) {}
+    
+    private static final class Candidate {
+        
+        private final String tableName;
+        private final List<String> equalityColumns;
+        private final String sortColumn;
+        private final LongAdder executions = new LongAdder();
+        private final ConcurrentHashMap<String, Sample> samples = new ConcurrentHashMap<>();
+        
+        Candidate(String tableName, List<String> equalityColumns, String sortColumn) {
+            this.tableName = tableName;
+            this.equalityColumns = equalityColumns;
+            this.sortColumn = sortColumn;
+        }
+        
+        List<String> columns() {
+            List<String> columns = new ArrayList<>(equalityColumns);
+            if (sortColumn != null && !columns.contains(sortColumn)) {
+                columns.add(sortColumn);
+            }
+            return columns;
+        }
+    }
+    
+    private static final class Sample {
+        
+        private final LongAdder executions = new LongAdder();
+        private volatile String sql;
+    }
+    
+    private static final class Plan {
+        
+        private double totalCost;
+        private double limitRows = -1;
+        private double matchingRows = -1;
+        private boolean sorts;
+        private final List<String> nodeTypes = new ArrayList<>();
+        private final Set<String> indexesUsed = new HashSet<>();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,331 @@
+package com.nlsql.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.model.TableInfo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Pages SELECT results with keyset (seek) pagination instead of OFFSET: every page is ordered
+ * by the requested sort column plus the table's primary key as a tiebreaker, and the next page
+ * starts strictly after the last row returned. The position travels in an opaque, HMAC-signed
+ * cursor token, so the server keeps no per-client state and clients cannot alter the SQL.
+ * Tokens expire {@code cursor-ttl-seconds} after the page that issued them.
+ */
+@Service
+public class KeysetPaginationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(KeysetPaginationService.class);
+    
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int CURSOR_VERSION = 1;
+    
+    // Column types whose text form round-trips through CAST(? AS type)
+    private static final Set<String> SEEKABLE_TYPES = Set.of(
+        "smallint", "integer", "bigint", "numeric", "real", "double precision",
+        "character varying", "character", "text", "uuid", "boolean", "date",
+        "timestamp without time zone", "timestamp with time zone"
+    );
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Value("${nlsql.pagination.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.query.max-results:1000}")
+    private int pageSize;
+    
+    @Value("${nlsql.pagination.secret:}")
+    private String secret;
+    
+    @Value("${nlsql.pagination.cursor-ttl-seconds:3600}")
+    private long cursorTtlSeconds;
+    
+    private Clock clock = Clock.systemUTC();
+    
+    private SecretKeySpec signingKey;
+    
+    @PostConstruct
+    public void initSigningKey() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // Tokens then only verify on this instance and expire with the process
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            logger.info("No nlsql.pagination.secret configured, using a per-process cursor signing key");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        signingKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+    }
+    
+    /**
+     * Plans the first page of a mapped query, or returns null when the query cannot be paged
+     * by key (aggregates, explicit limits, tables without a single-column primary key).
+     */
+    public KeysetPage planFirstPage(ParsedQuery parsedQuery, TableInfo tableInfo,
+                                    Function<ParsedQuery, String> sqlGenerator) {
+        if (!enabled || tableInfo == null
+                || parsedQuery.getQueryType() != ParsedQuery.QueryType.SELECT
+                || parsedQuery.getLimit() != null
+                || parsedQuery.getGroupByCount() > 0) {
+            return null;
+        }
+        
+        TableInfo.ColumnInfo keyColumn = tableInfo.getColumn(tableInfo.getPrimaryKey());
+        if (keyColumn == null || !isSeekable(keyColumn)) {
+            return null;
+        }
+        
+        TableInfo.ColumnInfo sortColumn = tableInfo.getColumn(parsedQuery.getOrderBy());
+        if (parsedQuery.getOrderBy() != null && (sortColumn == null || !isSeekable(sortColumn))) {
+            return null;
+        }
+        if (sortColumn != null && sortColumn.getColumnName().equalsIgnoreCase(keyColumn.getColumnName())) {
+            sortColumn = null;
+        }
+        
+        Cursor cursor = new Cursor();
+        cursor.v = CURSOR_VERSION;
+        cursor.k = keyColumn.getColumnName();
+        cursor.kt = keyColumn.getDataType();
+        if (sortColumn != null) {
+            cursor.s = sortColumn.getColumnName();
+            cursor.st = sortColumn.getDataType();
+            cursor.sn = sortColumn.isNullable();
+        }
+        cursor.d = "DESC".equalsIgnoreCase(parsedQuery.getOrderDirection());
+        cursor.w = parsedQuery.getConditionCount() > 0;
+        cursor.n = pageSize;
+        
+        // Ordering is owned by the page SQL, so the base statement is generated without it
+        ParsedQuery.Builder baseQuery = parsedQuery.toBuilder().orderBy(null).orderDirection(null);
+        
+        // The seek columns must be in the projection to build the next cursor from the last row
+        if (parsedQuery.getColumnCount() > 0) {
+            if (cursor.s != null) {
+                baseQuery.column(cursor.s);
+            }
+            baseQuery.column(cursor.k);
+        }
+        cursor.sql = sqlGenerator.apply(baseQuery.build());
+        
+        return new KeysetPage(cursor, buildPageSql(cursor, false), List.of());
+    }
+    
+    /** Decodes and verifies a cursor token and plans the page that follows it. */
+    public KeysetPage planNextPage(String token) {
+        Cursor cursor = decode(token);
+        
+        List<Object> params = new ArrayList<>();
+        if (cursor.s != null && cursor.sv != null) {
+            params.add(cursor.sv);
+        }
+        params.add(cursor.kv);
+        
+        return new KeysetPage(cursor, buildPageSql(cursor, true), params);
+    }
+    
+    /** Trims the look-ahead row and attaches the cursor for the next page, if there is one. */
+    public QueryResponse toResponse(KeysetPage page, List<Map<String, Object>> results) {
+        Cursor cursor = page.cursor;
+        if (results.size() <= cursor.n) {
+            return new QueryResponse(page.sql, results);
+        }
+        
+        List<Map<String, Object>> rows = new ArrayList<>(results.subList(0, cursor.n));
+        Map<String, Object> lastRow = rows.get(rows.size() - 1);
+        
+        Cursor next = cursor.copy();
+        next.e = clock.instant().getEpochSecond() + cursorTtlSeconds;
+        next.kv = String.valueOf(lastRow.get(cursor.k));
+        if (cursor.s != null) {
+            Object sortValue = lastRow.get(cursor.s);
+            next.sv = sortValue == null ? null : String.valueOf(sortValue);
+        }
+        
+        QueryResponse response = new QueryResponse(page.sql, rows);
+        response.setNextCursor(encode(next));
+        return response;
+    }
+    
+    private String buildPageSql(Cursor cursor, boolean afterCursor) {
+        StringBuilder sql = new StringBuilder(cursor.sql);
+        String comparator = cursor.d ? "<" : ">";
+        String direction = cursor.d ? " DESC" : " ASC";
+        boolean nullableSort = cursor.s != null && cursor.sn;
+        
+        if (afterCursor) {
+            sql.append(cursor.w ? " AND " : " WHERE ");
+            String key = cast(cursor.kt);
+            if (cursor.s == null) {
+                sql.append(cursor.k).append(" ").append(comparator).append(" ").append(key);
+            } else if (cursor.sv == null) {
+                // Nulls sort last, so a null position only has more nulls after it
+                sql.append("(").append(cursor.s).append(" IS NULL AND ")
+                   .append(cursor.k).append(" ").append(comparator).append(" ").append(key).append(")");
+            } else {
+                String rowComparison = "(" + cursor.s + ", " + cursor.k + ") " + comparator
+                    + " (" + cast(cursor.st) + ", " + key + ")";
+                if (nullableSort) {
+                    sql.append("(").append(rowComparison).append(" OR ").append(cursor.s).append(" IS NULL)");
+                } else {
+                    sql.append(rowComparison);
+                }
+            }
+        }
+        
+        sql.append(" ORDER BY ");
+        if (cursor.s != null) {
+            sql.append(cursor.s).append(direction);
+            if (nullableSort) {
+                sql.append(" NULLS LAST");
+            }
+            sql.append(", ");
+        }
+        sql.append(cursor.k).append(direction);
+        
+        // One look-ahead row tells whether another page exists
+        sql.append(" LIMIT ").append(cursor.n + 1);
+        return sql.toString();
+    }
+    
+    private static String cast(String dataType) {
+        return "CAST(? AS " + dataType + ")";
+    }
+    
+    private static boolean isSeekable(TableInfo.ColumnInfo column) {
+        return column.getDataType() != null && SEEKABLE_TYPES.contains(column.getDataType().toLowerCase());
+    }
+    
+    private String encode(Cursor cursor) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(cursor);
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor: " + e.getMessage(), e);
+        }
+    }
+    
+    private Cursor decode(String token) {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(token.substring(0, separator));
+            signature = decoder.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        
+        Cursor cursor;
+        try {
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                throw new IllegalArgumentException("Invalid cursor signature");
+            }
+            cursor = objectMapper.readValue(payload, Cursor.class);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        
+        if (cursor.v != CURSOR_VERSION || cursor.kv == null) {
+            throw new IllegalArgumentException("Unsupported cursor");
+        }
+        if (clock.instant().getEpochSecond() > cursor.e) {
+            throw new IllegalArgumentException("Expired cursor");
+        }
+        return cursor;
+    }
+    
+    private byte[] sign(byte[] payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(signingKey);
+        return mac.doFinal(payload);
+    }
+    
+    /** A planned page: the statement to run, its bind parameters and the cursor state. */
+    public static class KeysetPage {
+        private final Cursor cursor;
+        private final String sql;
+        private final List<Object> params;
+        
+        KeysetPage(Cursor cursor, String sql, List<Object> params) {
+            this.cursor = cursor;
+            this.sql = sql;
+            this.params = params;
+        }
+        
+        public String getSql() {
+            return sql;
+        }
+        
+        public Object[] getParams() {
+            return params.toArray();
+        }
+    }
+    
+    /** Token payload; short field names keep the token compact. */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public static class Cursor {
+        public int v;
+        public String sql;
+        public boolean w;
+        public String s;
+        public String st;
+        public boolean sn;
+        public String k;
+        public String kt;
+        public boolean d;
+        public int n;
+        public String sv;
+        public String kv;
+        // Expiry, in epoch seconds
+        public long e;
+        
+        Cursor copy() {
+            Cursor copy = new Cursor();
+            copy.v = v;
+            copy.sql = sql;
+            copy.w = w;
+            copy.s = s;
+            copy.st = st;
+            copy.sn = sn;
+            copy.k = k;
+            copy.kt = kt;
+            copy.d = d;
+            copy.n = n;
+            copy.sv = sv;
+            copy.kv = kv;
+            copy.e = e;
+            return copy;
+        }
+    }
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.nlsql.service;
 import com.nlsql.model.ParsedQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -14,90 +15,131 @@ public class NLPProcessorService {
     
     private static final Logger logger = LoggerFactory.getLogger(NLPProcessorService.class);
     
-    private static final Map<String, String> TABLE_ALIASES = Map.ofEntries(
-        Map.entry("employees", "employees"),
-        Map.entry("staff", "employees"),
-        Map.entry("workers", "employees"),
-        Map.entry("people", "employees"),
-        Map.entry("users", "users"),
-        Map.entry("customers", "customers"),
-        Map.entry("clients", "customers"),
-        Map.entry("orders", "orders"),
-        Map.entry("purchases", "orders"),
-        Map.entry("products", "products"),
-        Map.entry("items", "products")
-    );
-    
-    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
-        Map.entry("name", "name"),
-        Map.entry("names", "name"),
-        Map.entry("full name", "name"),
-        Map.entry("email", "email"),
-        Map.entry("emails", "email"),
-        Map.entry("city", "city"),
-        Map.entry("location", "city"),
-        Map.entry("department", "department"),
-        Map.entry("dept", "department"),
-        Map.entry("salary", "salary"),
-        Map.entry("wage", "salary"),
-        Map.entry("age", "age"),
-        Map.entry("id", "id"),
-        Map.entry("identifier", "id")
-    );
+    // Phrase -> name pairs, tried in order; arrays rather than maps so matching allocates nothing
+    // and the first alias a question mentions wins the same way on every run
+    private static final String[][] TABLE_ALIASES = {
+        {"employees", "employees"},
+        {"staff", "employees"},
+        {"workers", "employees"},
+        {"people", "employees"},
+        {"users", "users"},
+        {"customers", "customers"},
+        {"clients", "customers"},
+        {"orders", "orders"},
+        {"purchases", "orders"},
+        {"products", "products"},
+        {"items", "products"}
+    };
+    
+    private static final String[][] COLUMN_ALIASES = {
+        {"name", "name"},
+        {"names", "name"},
+        {"full name", "name"},
+        {"email", "email"},
+        {"emails", "email"},
+        {"city", "city"},
+        {"location", "city"},
+        {"department", "department"},
+        {"dept", "department"},
+        {"salary", "salary"},
+        {"wage", "salary"},
+        {"age", "age"},
+        {"id", "id"},
+        {"identifier", "id"}
+    };
+    
+    private static final String[] COUNT_KEYWORDS = {"count", "how many", "number of"};
+    private static final String[] SELECT_KEYWORDS = {"show", "list", "get", "find", "select", "display"};
+    
+    private static final Set<String> STOP_WORDS =
+        Set.of("the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with", "by", "all");
+    
+    private static final Pattern CITY_PATTERN =
+        Pattern.compile("(?:in|from|at)\\s+([a-zA-Z\\s]+?)(?:\\s|$|,|\\.)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DEPARTMENT_PATTERN =
+        Pattern.compile("(?:department|dept)\\s+([a-zA-Z\\s]+?)(?:\\s|$|,|\\.)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern AGE_PATTERN =
+        Pattern.compile("(?:age|aged)\\s+(?:over|above|greater than|>)\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LIMIT_PATTERN =
+        Pattern.compile("(?:limit|top|first)\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
+    
+    @Autowired
+    private ValueDictionaryService valueDictionaryService;
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
     
     public ParsedQuery parseQuery(String query) {
         logger.debug("Parsing query: {}", query);
         
         String normalizedQuery = query.toLowerCase().trim();
-        ParsedQuery parsedQuery = new ParsedQuery();
+        ParsedQuery.Builder parsedQuery = ParsedQuery.builder();
         
         // Determine query type
-        if (containsAny(normalizedQuery, Arrays.asList("count", "how many", "number of"))) {
-            parsedQuery.setQueryType(ParsedQuery.QueryType.COUNT);
-        } else if (containsAny(normalizedQuery, Arrays.asList("show", "list", "get", "find", "select", "display"))) {
-            parsedQuery.setQueryType(ParsedQuery.QueryType.SELECT);
+        if (containsAny(normalizedQuery, COUNT_KEYWORDS)) {
+            parsedQuery.queryType(ParsedQuery.QueryType.COUNT);
+        } else if (containsAny(normalizedQuery, SELECT_KEYWORDS)) {
+            parsedQuery.queryType(ParsedQuery.QueryType.SELECT);
         } else {
-            parsedQuery.setQueryType(ParsedQuery.QueryType.SELECT); // Default
+            parsedQuery.queryType(ParsedQuery.QueryType.SELECT); // Default
         }
         
         // Extract table name
         String tableName = extractTableName(normalizedQuery);
-        parsedQuery.setTableName(tableName);
+        parsedQuery.tableName(tableName);
         
-        // Extract columns
-        List<String> columns = extractColumns(normalizedQuery);
-        parsedQuery.setColumns(columns);
+        // Extract columns; none found means SELECT * or COUNT(*)
+        extractColumns(normalizedQuery, parsedQuery);
         
         // Extract WHERE conditions
-        Map<String, Object> whereConditions = extractWhereConditions(normalizedQuery);
-        parsedQuery.setWhereConditions(whereConditions);
+        extractWhereConditions(normalizedQuery, tableName, parsedQuery);
         
         // Extract GROUP BY
-        List<String> groupByColumns = extractGroupBy(normalizedQuery);
-        parsedQuery.setGroupByColumns(groupByColumns);
+        extractGroupBy(normalizedQuery, parsedQuery);
         
         // Extract ORDER BY
-        String orderBy = extractOrderBy(normalizedQuery);
-        parsedQuery.setOrderBy(orderBy);
+        parsedQuery.orderBy(extractOrderBy(normalizedQuery));
         
         // Extract LIMIT
-        Integer limit = extractLimit(normalizedQuery);
-        parsedQuery.setLimit(limit);
+        parsedQuery.limit(extractLimit(normalizedQuery));
         
-        logger.debug("Parsed query type: {}, table: {}", parsedQuery.getQueryType(), parsedQuery.getTableName());
+        ParsedQuery parsed = parsedQuery.build();
+        logger.debug("Parsed query type: {}, table: {}", parsed.getQueryType(), parsed.getTableName());
         
-        return parsedQuery;
+        return parsed;
     }
     
-    private boolean containsAny(String text, List<String> keywords) {
-        return keywords.stream().anyMatch(text::contains);
+    private static boolean containsAny(String text, String[] keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
     }
     
     private String extractTableName(String query) {
+        List<String> catalogTables = databaseSchemaService.getAllTableNames();
+        
+        // Tables outside the public schema are asked for by their qualified name
+        for (String tableName : catalogTables) {
+            if (tableName.indexOf('.') >= 0 && query.contains(tableName)) {
+                return tableName;
+            }
+        }
+        
         // Look for table aliases
-        for (Map.Entry<String, String> entry : TABLE_ALIASES.entrySet()) {
-            if (query.contains(entry.getKey())) {
-                return entry.getValue();
+        for (String[] alias : TABLE_ALIASES) {
+            if (query.contains(alias[0])) {
+                return alias[1];
+            }
+        }
+        
+        // Any other table a data source holds, named as it is; singular column-like words such
+        // as "department" keep meaning the default table
+        for (String tableName : catalogTables) {
+            if (tableName.indexOf('.') < 0 && mentionsTable(query, tableName)) {
+                return tableName;
             }
         }
         
@@ -105,68 +147,72 @@ public class NLPProcessorService {
         return "employees";
     }
     
-    private List<String> extractColumns(String query) {
-        List<String> columns = new ArrayList<>();
-        
-        // Check for specific column mentions
-        for (Map.Entry<String, String> entry : COLUMN_ALIASES.entrySet()) {
-            if (query.contains(entry.getKey())) {
-                columns.add(entry.getValue());
+    /** Whole-word mention of a table, reading underscores as spaces. */
+    private static boolean mentionsTable(String query, String tableName) {
+        String words = tableName.replace('_', ' ');
+        for (int start = query.indexOf(words); start >= 0; start = query.indexOf(words, start + 1)) {
+            if (!isWordChar(query, start - 1) && !isWordChar(query, start + words.length())) {
+                return true;
             }
         }
-        
-        // If no specific columns found, return all columns for SELECT, null for COUNT
-        if (columns.isEmpty()) {
-            return null; // Will be handled as SELECT * or COUNT(*)
+        return false;
+    }
+    
+    private static boolean isWordChar(String text, int index) {
+        return index >= 0 && index < text.length() && Character.isLetterOrDigit(text.charAt(index));
+    }
+    
+    private void extractColumns(String query, ParsedQuery.Builder parsedQuery) {
+        // Check for specific column mentions; "names" and "full name" mention "name" only once
+        for (String[] alias : COLUMN_ALIASES) {
+            if (query.contains(alias[0])) {
+                parsedQuery.column(alias[1]);
+            }
         }
-        
-        return columns;
     }
     
-    private Map<String, Object> extractWhereConditions(String query) {
-        Map<String, Object> conditions = new HashMap<>();
-        
-        // Extract city/location conditions
-        Pattern cityPattern = Pattern.compile("(?:in|from|at)\\s+([a-zA-Z\\s]+?)(?:\\s|$|,|\\.)", Pattern.CASE_INSENSITIVE);
-        Matcher cityMatcher = cityPattern.matcher(query);
-        if (cityMatcher.find()) {
-            String city = cityMatcher.group(1).trim();
-            if (!city.isEmpty() && !isStopWord(city)) {
-                conditions.put("city", city);
+    private void extractWhereConditions(String query, String tableName, ParsedQuery.Builder conditions) {
+        // Known values of the table's low-cardinality columns, bound to the column they belong to
+        valueDictionaryService.recognize(query, tableName, conditions);
+        
+        // The patterns below only guess, so they are skipped for columns whose values are all known
+        if (!conditions.hasCondition("city") && !valueDictionaryService.isIndexed(tableName, "city")) {
+            Matcher cityMatcher = CITY_PATTERN.matcher(query);
+            if (cityMatcher.find()) {
+                String city = cityMatcher.group(1).trim();
+                if (!city.isEmpty() && !isStopWord(city)) {
+                    conditions.condition("city", city);
+                }
             }
         }
         
-        // Extract department conditions
-        Pattern deptPattern = Pattern.compile("(?:department|dept)\\s+([a-zA-Z\\s]+?)(?:\\s|$|,|\\.)", Pattern.CASE_INSENSITIVE);
-        Matcher deptMatcher = deptPattern.matcher(query);
-        if (deptMatcher.find()) {
-            String dept = deptMatcher.group(1).trim();
-            if (!dept.isEmpty() && !isStopWord(dept)) {
-                conditions.put("department", dept);
+        if (!conditions.hasCondition("department") && !valueDictionaryService.isIndexed(tableName, "department")
+                && (query.contains("department") || query.contains("dept"))) {
+            Matcher deptMatcher = DEPARTMENT_PATTERN.matcher(query);
+            if (deptMatcher.find()) {
+                String dept = deptMatcher.group(1).trim();
+                if (!dept.isEmpty() && !isStopWord(dept)) {
+                    conditions.condition("department", dept);
+                }
             }
         }
         
         // Extract age conditions
-        Pattern agePattern = Pattern.compile("(?:age|aged)\\s+(?:over|above|greater than|>)\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
-        Matcher ageMatcher = agePattern.matcher(query);
-        if (ageMatcher.find()) {
-            conditions.put("age >", Integer.parseInt(ageMatcher.group(1)));
+        if (query.contains("age")) {
+            Matcher ageMatcher = AGE_PATTERN.matcher(query);
+            if (ageMatcher.find()) {
+                conditions.condition("age >", Integer.parseInt(ageMatcher.group(1)));
+            }
         }
-        
-        return conditions;
     }
     
-    private List<String> extractGroupBy(String query) {
-        List<String> groupBy = new ArrayList<>();
-        
+    private void extractGroupBy(String query, ParsedQuery.Builder parsedQuery) {
         if (query.contains("by department") || query.contains("by dept")) {
-            groupBy.add("department");
+            parsedQuery.groupBy("department");
         }
         if (query.contains("by city") || query.contains("by location")) {
-            groupBy.add("city");
+            parsedQuery.groupBy("city");
         }
-        
-        return groupBy.isEmpty() ? null : groupBy;
     }
     
     private String extractOrderBy(String query) {
@@ -184,8 +230,7 @@ public class NLPProcessorService {
     }
     
     private Integer extractLimit(String query) {
-        Pattern limitPattern = Pattern.compile("(?:limit|top|first)\\s+(\\d+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = limitPattern.matcher(query);
+        Matcher matcher = LIMIT_PATTERN.matcher(query);
         if (matcher.find()) {
             return Integer.parseInt(matcher.group(1));
         }
@@ -193,8 +238,7 @@ public class NLPProcessorService {
         return null;
     }
     
-    private boolean isStopWord(String word) {
-        Set<String> stopWords = Set.of("the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with", "by", "all");
-        return stopWords.contains(word.toLowerCase());
+    private static boolean isStopWord(String word) {
+        return STOP_WORDS.contains(word.toLowerCase());
     }
 }
\ No newline at end of file
@@ -2,13 +2,27 @@ package com.nlsql.service;
 
 import com.nlsql.model.ParsedQuery;
 import com.nlsql.model.QueryResponse;
+import com.nlsql.util.SingleFlight;
+import com.nlsql.util.StringUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class NLSQLConverterService {
@@ -24,7 +38,197 @@ public class NLSQLConverterService {
     @Autowired
     private DatabaseSchemaService databaseSchemaService;
     
+    @Autowired
+    private KeysetPaginationService keysetPaginationService;
+    
+    @Autowired
+    private ApproximateQueryService approximateQueryService;
+    
+    @Autowired
+    private AggregateCacheService aggregateCacheService;
+    
+    @Autowired
+    private ColumnarEngineService columnarEngineService;
+    
+    @Autowired
+    private WorkloadAnalyticsService workloadAnalyticsService;
+    
+    @Autowired
+    private IndexAdvisorService indexAdvisorService;
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${nlsql.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+    
+    @Value("${nlsql.coalescing.max-wait-ms:5000}")
+    private long coalescingMaxWaitMs;
+    
+    @Value("${nlsql.federation.batch-parallelism:8}")
+    private int batchParallelism;
+    
+    // Identical questions in flight at the same time share one translation and execution
+    private final SingleFlight<String, QueryResponse> inFlightQueries = new SingleFlight<>();
+    
+    // Different questions that translate to the same SQL share one database round trip
+    private final SingleFlight<String, List<Map<String, Object>>> inFlightStatements = new SingleFlight<>();
+    
+    // Data source name -> the threads answering batch questions for it
+    private final Map<String, ExecutorService> batchExecutors = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void registerMetrics() {
+        registerCoalescingMetrics("query", inFlightQueries);
+        registerCoalescingMetrics("sql", inFlightStatements);
+    }
+    
+    @PreDestroy
+    public void stopBatchExecutors() {
+        batchExecutors.values().forEach(ExecutorService::shutdownNow);
+    }
+    
+    private void registerCoalescingMetrics(String stage, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("nlsql.coalescing.calls", singleFlight, SingleFlight::getLeaderCount)
+            .description("Calls that ran their own computation")
+            .tags("stage", stage, "role", "leader")
+            .register(meterRegistry);
+        FunctionCounter.builder("nlsql.coalescing.calls", singleFlight, SingleFlight::getFollowerCount)
+            .description("Calls that joined an identical in-flight computation")
+            .tags("stage", stage, "role", "follower")
+            .register(meterRegistry);
+        FunctionCounter.builder("nlsql.coalescing.timeouts", singleFlight, SingleFlight::getTimeoutCount)
+            .description("Followers that gave up waiting and ran the computation themselves")
+            .tag("stage", stage)
+            .register(meterRegistry);
+        Gauge.builder("nlsql.coalescing.ratio", singleFlight, SingleFlight::getCoalescingRatio)
+            .description("Share of calls answered by another call's computation")
+            .tag("stage", stage)
+            .register(meterRegistry);
+        Gauge.builder("nlsql.coalescing.in.flight", singleFlight, SingleFlight::getInFlightCount)
+            .tag("stage", stage)
+            .register(meterRegistry);
+    }
+    
     public QueryResponse processQuery(String naturalLanguageQuery) {
+        return processQuery(naturalLanguageQuery, false);
+    }
+    
+    public QueryResponse processQuery(String naturalLanguageQuery, boolean approximate) {
+        long startNanos = System.nanoTime();
+        QueryResponse response = coalescingEnabled
+            ? coalesce(naturalLanguageQuery, approximate)
+            : translateAndExecute(naturalLanguageQuery, approximate);
+        workloadAnalyticsService.record(response, System.nanoTime() - startNanos);
+        return response;
+    }
+    
+    private QueryResponse coalesce(String naturalLanguageQuery, boolean approximate) {
+        String key = (approximate ? "~" : "") + normalizeForCoalescing(naturalLanguageQuery);
+        QueryResponse shared = inFlightQueries.execute(key, () -> translateAndExecute(naturalLanguageQuery, approximate),
+            coalescingMaxWaitMs);
+        
+        // Callers decorate their response (e.g. execution time), so each gets its own copy
+        QueryResponse response = new QueryResponse(shared.getSql(), shared.getResults());
+        response.setError(shared.getError());
+        response.setNextCursor(shared.getNextCursor());
+        response.setApproximation(shared.getApproximation());
+        response.setSuggestions(shared.getSuggestions());
+        return response;
+    }
+    
+    /**
+     * Answers independent questions concurrently. Each data source has its own pool of
+     * {@code nlsql.federation.batch-parallelism} threads, so slow questions for one source never
+     * hold the threads that questions for another are waiting on. Each response carries its own
+     * execution time; they come back in the order of the questions.
+     *
+     * Every question takes its own slot under the admission concurrency limit while it runs, as
+     * a single query would; one that finds none is answered with an error in its place.
+     */
+    public List<QueryResponse> processBatch(List<String> naturalLanguageQueries, boolean approximate) {
+        List<CompletableFuture<QueryResponse>> futures = new ArrayList<>(naturalLanguageQueries.size());
+        for (String naturalLanguageQuery : naturalLanguageQueries) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                AdmissionControlService.Admission slot = admissionControlService.acquireSlot();
+                if (slot.getStatus() != AdmissionControlService.Status.ADMITTED) {
+                    return new QueryResponse("Server is at its concurrency limit");
+                }
+                try {
+                    long startTime = System.currentTimeMillis();
+                    QueryResponse response = processQuery(naturalLanguageQuery, approximate);
+                    response.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+                    return response;
+                } finally {
+                    admissionControlService.release(slot);
+                }
+            }, batchExecutor(sourceOf(naturalLanguageQuery))).exceptionally(e -> new QueryResponse(
+                "Error processing query: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()))));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+    
+    // Parsing and schema mapping are in-memory, so resolving the table twice costs microseconds.
+    // Questions that name no known table fail without touching a database and share one pool.
+    private String sourceOf(String naturalLanguageQuery) {
+        try {
+            ParsedQuery parsedQuery = databaseSchemaService.mapToSchema(nlpProcessorService.parseQuery(naturalLanguageQuery));
+            return databaseSchemaService.getSourceName(parsedQuery.getTableName());
+        } catch (Exception e) {
+            return "";
+        }
+    }
+    
+    // Sources are configured, so there is a bounded number of pools; threads start on first use
+    private ExecutorService batchExecutor(String sourceName) {
+        return batchExecutors.computeIfAbsent(sourceName, name -> {
+            String prefix = name.isEmpty() ? "nlsql-batch-" : "nlsql-batch-" + name + "-";
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(batchParallelism, runnable -> {
+                Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+    }
+    
+    public QueryResponse processPage(String cursor) {
+        long startNanos = System.nanoTime();
+        QueryResponse response = fetchPage(cursor);
+        workloadAnalyticsService.record(response, System.nanoTime() - startNanos);
+        return response;
+    }
+    
+    private QueryResponse fetchPage(String cursor) {
+        try {
+            KeysetPaginationService.KeysetPage page = keysetPaginationService.planNextPage(cursor);
+            logger.debug("Generated page SQL: {}", page.getSql());
+            
+            List<Map<String, Object>> results = queryExecutionService.executeQuery(page.getSql(), page.getParams());
+            return keysetPaginationService.toResponse(page, results);
+            
+        } catch (Exception e) {
+            logger.error("Error processing page: {}", e.getMessage(), e);
+            return new QueryResponse("Error processing page: " + e.getMessage());
+        }
+    }
+    
+    private String normalizeForCoalescing(String naturalLanguageQuery) {
+        return StringUtils.normalize(naturalLanguageQuery).replaceAll("\\s+", " ");
+    }
+    
+    private List<Map<String, Object>> executeSQL(String sql) {
+        if (!coalescingEnabled) {
+            return queryExecutionService.executeQuery(sql);
+        }
+        return inFlightStatements.execute(sql, () -> queryExecutionService.executeQuery(sql), coalescingMaxWaitMs);
+    }
+    
+    private QueryResponse translateAndExecute(String naturalLanguageQuery, boolean approximate) {
+        String sql = null;
         try {
             logger.debug("Processing natural language query: {}", naturalLanguageQuery);
             
@@ -35,30 +239,83 @@ public class NLSQLConverterService {
             // Step 2: Map entities to database schema
             parsedQuery = databaseSchemaService.mapToSchema(parsedQuery);
             
+            // Snapshotted reference tables are answered in-process
+            QueryResponse inMemory = columnarEngineService.execute(parsedQuery, this::generateSQL);
+            if (inMemory != null) {
+                logger.debug("Answered from columnar snapshot: {}", inMemory.getSql());
+                return inMemory;
+            }
+            
+            // Plain SELECTs are paged by key, everything else runs as a single statement
+            KeysetPaginationService.KeysetPage page = keysetPaginationService.planFirstPage(parsedQuery,
+                databaseSchemaService.getTableInfo(parsedQuery.getTableName()), this::generateSQL);
+            if (page != null) {
+                sql = page.getSql();
+                logger.debug("Generated SQL: {}", sql);
+                indexAdvisorService.recordUsage(parsedQuery, sql);
+                return keysetPaginationService.toResponse(page, executeSQL(page.getSql()));
+            }
+            
             // Step 3: Generate SQL from parsed query
-            String sql = generateSQL(parsedQuery);
+            sql = generateSQL(parsedQuery);
             logger.debug("Generated SQL: {}", sql);
             
+            // Frequent aggregate shapes are answered from in-memory summaries
+            QueryResponse summarized = aggregateCacheService.lookup(parsedQuery, sql);
+            if (summarized != null) {
+                return summarized;
+            }
+            
+            // Opt-in: serve COUNTs from statistics or a sample when the estimate is tight enough
+            if (approximate) {
+                QueryResponse estimated = approximateQueryService.estimate(parsedQuery, sql);
+                if (estimated != null) {
+                    return estimated;
+                }
+            }
+            
             // Step 4: Execute SQL query
-            List<Map<String, Object>> results = queryExecutionService.executeQuery(sql);
+            indexAdvisorService.recordUsage(parsedQuery, sql);
+            List<Map<String, Object>> results = executeSQL(sql);
             logger.debug("Query executed successfully, returned {} rows", results.size());
             
             return new QueryResponse(sql, results);
             
+        } catch (TableNotFoundException e) {
+            // Expected for misspelt or unknown tables, so no stack trace
+            logger.warn("Error processing query: {}", e.getMessage());
+            QueryResponse response = new QueryResponse("Error processing query: " + e.getMessage());
+            response.setSuggestions(e.getSuggestions());
+            return response;
         } catch (Exception e) {
             logger.error("Error processing query: {}", e.getMessage(), e);
-            return new QueryResponse("Error processing query: " + e.getMessage());
+            QueryResponse response = new QueryResponse("Error processing query: " + e.getMessage());
+            // Keep the statement that failed, if translation got that far
+            response.setSql(sql);
+            return response;
         }
     }
     
-    private String generateSQL(ParsedQuery parsedQuery) {
+    /**
+     * Translates a question into the single statement the blocking path would run for it,
+     * without executing it. Used by backends that execute the statement themselves.
+     */
+    public String translate(String naturalLanguageQuery) {
+        ParsedQuery parsedQuery = nlpProcessorService.parseQuery(naturalLanguageQuery);
+        parsedQuery = databaseSchemaService.mapToSchema(parsedQuery);
+        return generateSQL(parsedQuery);
+    }
+    
+    String generateSQL(ParsedQuery parsedQuery) {
         StringBuilder sql = new StringBuilder();
         
         switch (parsedQuery.getQueryType()) {
             case SELECT:
                 sql.append("SELECT ");
-                if (parsedQuery.getColumns() != null && !parsedQuery.getColumns().isEmpty()) {
-                    sql.append(String.join(", ", parsedQuery.getColumns()));
+                if (parsedQuery.getColumnCount() > 0) {
+                    for (int i = 0; i < parsedQuery.getColumnCount(); i++) {
+                        sql.append(i == 0 ? "" : ", ").append(parsedQuery.getColumn(i));
+                    }
                 } else {
                     sql.append("*");
                 }
@@ -66,7 +323,12 @@ public class NLSQLConverterService {
                 break;
                 
             case COUNT:
-                sql.append("SELECT COUNT(*) as count FROM ").append(parsedQuery.getTableName());
+                sql.append("SELECT ");
+                // Grouped counts are meaningless without the group they belong to
+                for (int i = 0; i < parsedQuery.getGroupByCount(); i++) {
+                    sql.append(parsedQuery.getGroupByColumn(i)).append(", ");
+                }
+                sql.append("COUNT(*) as count FROM ").append(parsedQuery.getTableName());
                 break;
                 
             default:
@@ -74,21 +336,15 @@ public class NLSQLConverterService {
         }
         
         // Add WHERE conditions
-        if (parsedQuery.getWhereConditions() != null && !parsedQuery.getWhereConditions().isEmpty()) {
-            sql.append(" WHERE ");
-            boolean first = true;
-            for (Map.Entry<String, Object> condition : parsedQuery.getWhereConditions().entrySet()) {
-                if (!first) {
-                    sql.append(" AND ");
-                }
-                sql.append(condition.getKey()).append(" = '").append(condition.getValue()).append("'");
-                first = false;
-            }
+        for (int i = 0; i < parsedQuery.getConditionCount(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ");
+            sql.append(parsedQuery.getConditionColumn(i)).append(" = '")
+               .append(String.valueOf(parsedQuery.getConditionValue(i)).replace("'", "''")).append("'");
         }
         
         // Add GROUP BY
-        if (parsedQuery.getGroupByColumns() != null && !parsedQuery.getGroupByColumns().isEmpty()) {
-            sql.append(" GROUP BY ").append(String.join(", ", parsedQuery.getGroupByColumns()));
+        for (int i = 0; i < parsedQuery.getGroupByCount(); i++) {
+            sql.append(i == 0 ? " GROUP BY " : ", ").append(parsedQuery.getGroupByColumn(i));
         }
         
         // Add ORDER BY
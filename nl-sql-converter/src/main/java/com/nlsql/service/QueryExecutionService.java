@@ -8,21 +8,34 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class QueryExecutionService {
     
     private static final Logger logger = LoggerFactory.getLogger(QueryExecutionService.class);
     
+    // Generated statements read a single table, which decides the source they run on
+    private static final Pattern FROM_TABLE = Pattern.compile("\\bFROM\\s+([\\w.]+)", Pattern.CASE_INSENSITIVE);
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private DataSourceRegistry dataSourceRegistry;
     
     @Value("${nlsql.query.max-results:1000}")
     private int maxResults;
     
     public List<Map<String, Object>> executeQuery(String sql) {
-        logger.debug("Executing SQL: {}", sql);
+        return executeQuery(sql, new Object[0]);
+    }
+    
+    public List<Map<String, Object>> executeQuery(String sql, Object... params) {
+        logger.debug("Executing SQL: {} with {} parameters", sql, params.length);
         
         try {
             // Validate SQL to prevent dangerous operations
@@ -31,7 +44,10 @@ public class QueryExecutionService {
             // Add limit if not present to prevent excessive results
             String limitedSql = addLimitIfNeeded(sql);
             
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(limitedSql);
+            JdbcTemplate jdbcTemplate = route(sql);
+            List<Map<String, Object>> results = params.length == 0
+                ? jdbcTemplate.queryForList(limitedSql)
+                : jdbcTemplate.queryForList(limitedSql, params);
             logger.debug("Query executed successfully, returned {} rows", results.size());
             
             return results;
@@ -42,8 +58,40 @@ public class QueryExecutionService {
         }
     }
     
-    private void validateSQL(String sql) {
-        String normalizedSql = sql.toLowerCase().trim();
+    /**
+     * Runs a validated statement against a block sample of {@code tableName}. The sampling
+     * clause is added after validation because it is not something users can ask for. Calls
+     * with the same seed see the same blocks as long as the table is unchanged.
+     */
+    public List<Map<String, Object>> executeSampledQuery(String sql, String tableName, double samplePercent,
+                                                         int seed) {
+        logger.debug("Executing SQL: {} on a {}% sample", sql, samplePercent);
+        
+        try {
+            validateSQL(sql);
+            
+            String from = " FROM " + tableName;
+            int tableEnd = sql.indexOf(from);
+            if (tableEnd < 0) {
+                throw new IllegalArgumentException("Table " + tableName + " not found in query");
+            }
+            tableEnd += from.length();
+            String sampledSql = sql.substring(0, tableEnd)
+                + String.format(Locale.ROOT, " TABLESAMPLE SYSTEM (%.6f) REPEATABLE (%d)", samplePercent, seed)
+                + sql.substring(tableEnd);
+            
+            return databaseSchemaService.jdbcTemplateFor(tableName).queryForList(addLimitIfNeeded(sampledSql));
+            
+        } catch (Exception e) {
+            logger.error("Error executing sampled SQL: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to execute query: " + e.getMessage());
+        }
+    }
+    
+    /** Rejects anything but a single read-only SELECT; shared by every execution backend. */
+    public void validateSQL(String sql) {
+        // Quoted literals are data, not SQL; only check what is outside them
+        String normalizedSql = sql.replaceAll("'(?:[^']|'')*'", "?").toLowerCase().trim();
         
         // Only allow SELECT and COUNT queries for safety
         if (!normalizedSql.startsWith("select")) {
@@ -69,7 +117,8 @@ public class QueryExecutionService {
         }
     }
     
-    private String addLimitIfNeeded(String sql) {
+    /** Caps statements without a LIMIT at {@code nlsql.query.max-results} rows. */
+    public String addLimitIfNeeded(String sql) {
         String normalizedSql = sql.toLowerCase();
         
         // If LIMIT is already present, don't add another one
@@ -81,9 +130,23 @@ public class QueryExecutionService {
         return sql + " LIMIT " + maxResults;
     }
     
+    /** Name of the data source a statement runs on, decided by the table it reads. */
+    public String getSourceName(String sql) {
+        return databaseSchemaService.getSourceName(tableOf(sql));
+    }
+    
+    private JdbcTemplate route(String sql) {
+        return databaseSchemaService.jdbcTemplateFor(tableOf(sql));
+    }
+    
+    private static String tableOf(String sql) {
+        Matcher matcher = FROM_TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
     public boolean testConnection() {
         try {
-            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            dataSourceRegistry.getPrimary().getJdbcTemplate().queryForObject("SELECT 1", Integer.class);
             return true;
         } catch (Exception e) {
             logger.error("Database connection test failed: {}", e.getMessage());
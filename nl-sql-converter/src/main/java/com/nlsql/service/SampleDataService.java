@@ -0,0 +1,80 @@
+package com.nlsql.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Creates and fills a small employees table in the primary database for demos and local
+ * development. It only runs when asked: at startup with {@code nlsql.sample-data.seed-on-startup},
+ * or through {@code POST /actuator/sampledata}. Questions never write to the database.
+ */
+@Service
+public class SampleDataService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SampleDataService.class);
+    
+    @Autowired
+    private DataSourceRegistry dataSourceRegistry;
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
+    @Value("${nlsql.sample-data.seed-on-startup:false}")
+    private boolean seedOnStartup;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfConfigured() {
+        if (seedOnStartup) {
+            seed();
+        }
+    }
+    
+    /** Creates the employees table if missing and inserts the sample rows if it is empty. */
+    public synchronized Map<String, Object> seed() {
+        JdbcTemplate jdbcTemplate = dataSourceRegistry.getPrimary().getJdbcTemplate();
+        
+        String createEmployeesTable = """
+            CREATE TABLE IF NOT EXISTS employees (
+                id SERIAL PRIMARY KEY,
+                name VARCHAR(100) NOT NULL,
+                email VARCHAR(100),
+                city VARCHAR(50),
+                department VARCHAR(50),
+                salary NUMERIC(10,2),
+                age INTEGER
+            )
+        """;
+        jdbcTemplate.execute(createEmployeesTable);
+        
+        int inserted = 0;
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employees", Integer.class);
+        if (count != null && count == 0) {
+            String insertSample = """
+                INSERT INTO employees (name, email, city, department, salary, age) VALUES
+                ('John Doe', 'john.doe@company.com', 'Mumbai', 'Engineering', 75000, 30),
+                ('Jane Smith', 'jane.smith@company.com', 'Delhi', 'Marketing', 65000, 28),
+                ('Bob Johnson', 'bob.johnson@company.com', 'Mumbai', 'Engineering', 80000, 35),
+                ('Alice Brown', 'alice.brown@company.com', 'Bangalore', 'HR', 60000, 32),
+                ('Charlie Wilson', 'charlie.wilson@company.com', 'Mumbai', 'Sales', 70000, 29)
+            """;
+            inserted = jdbcTemplate.update(insertSample);
+            logger.info("Sample data inserted into employees table");
+        }
+        databaseSchemaService.refreshCatalog();
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("table", "employees");
+        result.put("existing_rows", count);
+        result.put("inserted_rows", inserted);
+        return result;
+    }
+}
\ No newline at end of file
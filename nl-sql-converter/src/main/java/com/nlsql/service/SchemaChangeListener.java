@@ -0,0 +1,194 @@
+package com.nlsql.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one connection per data source outside its pool, LISTENing on the channel the
+ * {@code schema-notify.sql} event trigger NOTIFYs on DDL, and turns every notification into a
+ * {@link SchemaChangedEvent}. Listeners of that event run on the listener thread, so reloading
+ * metadata never holds up a question. A migration's DDL arrives in bursts, so notifications are
+ * gathered until the channel has been quiet for {@code debounce-ms} and each change is announced
+ * once.
+ *
+ * Notifications sent while the connection is down are lost, so a reconnect announces a change
+ * of the whole source. Without the event trigger installed nothing is ever announced and the
+ * scheduled refreshes remain the only way schema changes are picked up.
+ */
+@Service
+public class SchemaChangeListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemaChangeListener.class);
+    
+    static final String CHANNEL = "nlsql_schema_change";
+    
+    // A burst is cut short after this many quiet periods, so steady DDL is still announced
+    private static final int MAX_BURST_PERIODS = 10;
+    
+    @Autowired
+    private DataSourceRegistry dataSourceRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${nlsql.schema-listener.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.schema-listener.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+    
+    @Value("${nlsql.schema-listener.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+    
+    @Value("${nlsql.schema-listener.debounce-ms:200}")
+    private int debounceMs;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final List<Thread> threads = new ArrayList<>();
+    
+    private volatile boolean running;
+    
+    // Started once the context is up, so no event reaches a listener that is not ready yet
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        
+        running = true;
+        for (DataSourceRegistry.Source source : dataSourceRegistry.getSources()) {
+            DataSource dataSource = source.getJdbcTemplate().getDataSource();
+            if (!(dataSource instanceof HikariDataSource pool)) {
+                logger.warn("Not listening for schema changes of source {}: no JDBC URL to connect to", source.getName());
+                continue;
+            }
+            
+            Thread thread = new Thread(() -> listen(source.getName(), pool), "nlsql-schema-listener-" + source.getName());
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+    
+    private void listen(String sourceName, HikariDataSource pool) {
+        Counter changes = Counter.builder("nlsql.schema.changes")
+            .description("Schema change notifications received")
+            .tag("source", sourceName)
+            .register(meterRegistry);
+        boolean reconnecting = false;
+        
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(pool.getJdbcUrl(), pool.getUsername(), pool.getPassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for schema changes of source {}", sourceName);
+                
+                if (reconnecting) {
+                    // Whatever changed while the connection was down was not announced
+                    publish(new SchemaChangedEvent(sourceName, null, "RECONNECT"));
+                }
+                reconnecting = true;
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null || notifications.length == 0) {
+                        continue;
+                    }
+                    
+                    Map<String, SchemaChangedEvent> burst = new LinkedHashMap<>();
+                    long burstEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos((long) debounceMs * MAX_BURST_PERIODS);
+                    while (notifications != null && notifications.length > 0) {
+                        for (PGNotification notification : notifications) {
+                            changes.increment();
+                            SchemaChangedEvent event = toEvent(sourceName, notification.getParameter());
+                            burst.putIfAbsent(event.getTableName() + " " + event.getCommand(), event);
+                        }
+                        notifications = System.nanoTime() - burstEnd < 0 ? pgConnection.getNotifications(debounceMs) : null;
+                    }
+                    coalesce(burst.values()).forEach(this::publish);
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Schema change listener of source {} lost its connection: {}", sourceName, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    /** One change of the whole source covers every table change of the same burst. */
+    private static Collection<SchemaChangedEvent> coalesce(Collection<SchemaChangedEvent> events) {
+        for (SchemaChangedEvent event : events) {
+            if (event.isWholeSchema()) {
+                return List.of(event);
+            }
+        }
+        return events;
+    }
+    
+    /** Payloads are {"command": ..., "schema": ..., "table": ...}; a null table stands for the whole schema. */
+    private SchemaChangedEvent toEvent(String sourceName, String payload) {
+        try {
+            JsonNode change = objectMapper.readTree(payload);
+            String schema = change.path("schema").asText("public");
+            String table = change.path("table").isTextual() ? change.path("table").asText() : null;
+            String tableName = table == null || "public".equals(schema) ? table : schema + "." + table;
+            return new SchemaChangedEvent(sourceName, tableName, change.path("command").asText("DDL"));
+        } catch (Exception e) {
+            logger.warn("Unreadable schema change notification {}: {}", payload, e.getMessage());
+            return new SchemaChangedEvent(sourceName, null, "DDL");
+        }
+    }
+    
+    private void publish(SchemaChangedEvent event) {
+        logger.info("Schema changed: {}", event);
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            logger.warn("Could not apply schema change {}: {}", event, e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.nlsql.service;
+
+/**
+ * Published by {@link SchemaChangeListener} when DDL touched a table of a data source. A null
+ * table name means the changes cannot be narrowed down, e.g. after the listener reconnected, and
+ * everything derived from the schema of that source should be treated as stale.
+ */
+public class SchemaChangedEvent {
+    
+    private final String sourceName;
+    private final String tableName;
+    private final String command;
+    
+    public SchemaChangedEvent(String sourceName, String tableName, String command) {
+        this.sourceName = sourceName;
+        this.tableName = tableName;
+        this.command = command;
+    }
+    
+    public String getSourceName() {
+        return sourceName;
+    }
+    
+    /** The table as the catalog names it: bare in public, schema.table elsewhere. */
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public String getCommand() {
+        return command;
+    }
+    
+    public boolean isWholeSchema() {
+        return tableName == null;
+    }
+    
+    @Override
+    public String toString() {
+        return command + " on " + (tableName != null ? tableName : "all tables") + " of source " + sourceName;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.nlsql.service;
+
+import java.util.List;
+
+/**
+ * A question named a table no data source has. Carries the closest table names, best first,
+ * so the caller can offer them instead. Thrown for every misspelt table, so it skips the
+ * stack trace.
+ */
+public class TableNotFoundException extends RuntimeException {
+    
+    private final String tableName;
+    private final List<String> suggestions;
+    
+    public TableNotFoundException(String tableName, List<String> suggestions) {
+        super("Table '" + tableName + "' not found"
+            + (suggestions.isEmpty() ? "" : ". Did you mean: " + String.join(", ", suggestions) + "?"),
+            null, false, false);
+        this.tableName = tableName;
+        this.suggestions = List.copyOf(suggestions);
+    }
+    
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
+}
\ No newline at end of file
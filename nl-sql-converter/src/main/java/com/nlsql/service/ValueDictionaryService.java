@@ -0,0 +1,325 @@
+package com.nlsql.service;
+
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.TableInfo;
+import com.nlsql.util.ValueTrie;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexes the distinct values of low-cardinality text columns (city, department, status,
+ * category and the like) so the parser can recognise literals in a question and bind each to
+ * the column it belongs to. Candidate columns are chosen from the planner statistics and their
+ * values read from the most-common-values list when it is complete, falling back to a bounded,
+ * time-limited DISTINCT otherwise. Columns without statistics are never scanned: they are
+ * indexed once ANALYZE has seen them. The index is rebuilt on a schedule when any table has changed, reading
+ * only the changed tables again, and right away when the schema of a table changes. Rebuilds run on a thread
+ * of their own so the DISTINCT reads never hold up the shared {@code @Scheduled} tasks.
+ */
+@Service
+public class ValueDictionaryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ValueDictionaryService.class);
+    
+    private static final Set<String> TEXT_TYPES = Set.of("character varying", "character", "text");
+    
+    // Phrases that would match ordinary question words rather than name a value
+    private static final Set<String> STOP_WORDS = Set.of(
+        "the", "a", "an", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with", "by", "all",
+        "show", "list", "get", "find", "count", "me", "from", "where", "is", "are"
+    );
+    
+    @Autowired
+    private DatabaseSchemaService databaseSchemaService;
+    
+    @Value("${nlsql.value-dictionary.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.value-dictionary.refresh-interval-ms:300000}")
+    private long refreshIntervalMs;
+    
+    @Value("${nlsql.value-dictionary.max-distinct:200}")
+    private int maxDistinct;
+    
+    @Value("${nlsql.value-dictionary.max-values:50000}")
+    private int maxValues;
+    
+    @Value("${nlsql.value-dictionary.max-value-length:64}")
+    private int maxValueLength;
+    
+    @Value("${nlsql.value-dictionary.scan-timeout-seconds:5}")
+    private int scanTimeoutSeconds;
+    
+    private volatile Dictionary dictionary = Dictionary.EMPTY;
+    
+    // Tables whose schema changed since they were last read
+    private final Set<String> staleTables = ConcurrentHashMap.newKeySet();
+    
+    private ScheduledExecutorService refreshExecutor;
+    
+    @PostConstruct
+    public void startRefresh() {
+        refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nlsql-value-dictionary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            refreshExecutor.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    public void stopRefresh() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    /**
+     * Finds the indexed values of {@code tableName}'s columns in a lower-cased question and
+     * adds them to the query as column to stored value, in the order they occur. A phrase that is
+     * a value of several columns binds to the one with the fewest distinct values; only the first
+     * value found for each column is kept.
+     */
+    public void recognize(String normalizedQuery, String tableName, ParsedQuery.Builder conditions) {
+        Dictionary current = dictionary;
+        if (!current.indexedColumns.containsKey(tableName)) {
+            return;
+        }
+        
+        for (ValueTrie.Match<ColumnValue> match : current.trie.findAll(normalizedQuery)) {
+            ColumnValue best = null;
+            for (ColumnValue candidate : match.values()) {
+                if (candidate.table().equals(tableName) && !conditions.hasCondition(candidate.column())
+                        && (best == null || candidate.cardinality() < best.cardinality())) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                conditions.condition(best.column(), best.value());
+            }
+        }
+    }
+    
+    /**
+     * Whether every value of the column is in the index, so a phrase the index does not know
+     * cannot be a value of that column.
+     */
+    public boolean isIndexed(String tableName, String columnName) {
+        Set<String> columns = dictionary.indexedColumns.get(tableName);
+        return columns != null && columns.contains(columnName);
+    }
+    
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        
+        // Only tables that changed since the last build are read again
+        Dictionary current = dictionary;
+        Map<String, TableValues> tables = new LinkedHashMap<>();
+        int reread = 0;
+        for (String tableName : databaseSchemaService.getAllTableNames()) {
+            TableValues previous = current.tables.get(tableName);
+            boolean stale = staleTables.remove(tableName);
+            try {
+                // Views have no row in pg_stat_user_tables, and a federated source may be unreachable
+                long version = databaseSchemaService.getModificationCount(tableName);
+                if (previous != null && previous.version == version && !stale) {
+                    tables.put(tableName, previous);
+                    continue;
+                }
+                
+                reread++;
+                tables.put(tableName, readTable(tableName, version));
+            } catch (Exception e) {
+                logger.warn("Could not index values of table {}: {}", tableName, e.getMessage());
+            }
+        }
+        if (reread == 0 && tables.keySet().equals(current.tables.keySet())) {
+            return;
+        }
+        
+        ValueTrie.Builder<ColumnValue> builder = ValueTrie.builder();
+        Map<String, Set<String>> indexedColumns = new HashMap<>();
+        for (Map.Entry<String, TableValues> table : tables.entrySet()) {
+            addTable(table.getKey(), table.getValue(), builder, indexedColumns);
+        }
+        
+        Dictionary rebuilt = new Dictionary(builder.build(), indexedColumns, tables);
+        dictionary = rebuilt;
+        logger.info("Value dictionary holds {} values from {} columns (~{} bytes), {} tables read", rebuilt.trie.size(),
+            indexedColumns.values().stream().mapToInt(Set::size).sum(), rebuilt.trie.estimatedBytes(), reread);
+    }
+    
+    /**
+     * Marks the changed table, or every table of the source, for reading again. DDL leaves the
+     * modification counts alone, so a rebuild would otherwise keep the old columns. The rebuild
+     * runs on the dictionary's own thread rather than the listener's.
+     */
+    @EventListener
+    public void onSchemaChanged(SchemaChangedEvent event) {
+        if (event.isWholeSchema()) {
+            for (String tableName : databaseSchemaService.getAllTableNames()) {
+                if (event.getSourceName().equals(databaseSchemaService.getSourceName(tableName))) {
+                    staleTables.add(tableName);
+                }
+            }
+        } else {
+            staleTables.add(event.getTableName());
+        }
+        if (enabled) {
+            refreshExecutor.execute(this::refreshQuietly);
+        }
+    }
+    
+    // An exception would cancel the fixed-delay schedule
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Value dictionary refresh failed: {}", e.getMessage());
+        }
+    }
+    
+    private TableValues readTable(String tableName, long version) {
+        TableInfo tableInfo = databaseSchemaService.getTableInfo(tableName);
+        Map<String, ColumnStatistics> statistics = getColumnStatistics(tableName);
+        
+        Map<String, List<String>> valuesByColumn = new LinkedHashMap<>();
+        for (TableInfo.ColumnInfo column : tableInfo.getColumns()) {
+            String columnName = column.getColumnName();
+            if (column.getDataType() == null || !TEXT_TYPES.contains(column.getDataType().toLowerCase())
+                    || columnName.equalsIgnoreCase(tableInfo.getPrimaryKey())) {
+                continue;
+            }
+            
+            List<String> values = distinctValues(tableName, columnName, statistics.get(columnName));
+            if (values != null) {
+                valuesByColumn.put(columnName, values);
+            }
+        }
+        return new TableValues(version, valuesByColumn);
+    }
+    
+    private void addTable(String tableName, TableValues table, ValueTrie.Builder<ColumnValue> builder,
+                          Map<String, Set<String>> indexedColumns) {
+        for (Map.Entry<String, List<String>> column : table.valuesByColumn.entrySet()) {
+            String columnName = column.getKey();
+            List<String> values = column.getValue();
+            if (builder.phraseCount() + values.size() > maxValues) {
+                logger.warn("Value dictionary is full at {} values, not indexing {}.{}", maxValues, tableName, columnName);
+                return;
+            }
+            
+            for (String value : values) {
+                if (isIndexable(value)) {
+                    builder.add(value, new ColumnValue(tableName, columnName, value, values.size()));
+                }
+            }
+            indexedColumns.computeIfAbsent(tableName, t -> new HashSet<>()).add(columnName);
+        }
+    }
+    
+    /**
+     * All distinct non-null values of a column, or null when it has too many to index or its
+     * cardinality is unknown. Only columns the statistics show to be small are scanned.
+     */
+    private List<String> distinctValues(String tableName, String columnName, ColumnStatistics statistics) {
+        if (statistics == null || statistics.distinctValues > maxDistinct) {
+            return null;
+        }
+        // ANALYZE lists every value when there are fewer than its statistics target
+        if (statistics.mostCommonValues != null && statistics.mostCommonValues.size() >= statistics.distinctValues) {
+            return statistics.mostCommonValues;
+        }
+        
+        // Evenly spread values are left out of the list; read them, but never for longer than the timeout
+        JdbcTemplate scanTemplate = new JdbcTemplate(databaseSchemaService.jdbcTemplateFor(tableName).getDataSource());
+        scanTemplate.setQueryTimeout(scanTimeoutSeconds);
+        String column = quoteIdentifier(columnName);
+        List<String> values = scanTemplate.queryForList(
+            "SELECT DISTINCT " + column + " FROM " + quoteIdentifier(tableName) + " WHERE " + column
+                + " IS NOT NULL LIMIT " + (maxDistinct + 1), String.class);
+        return values.size() > maxDistinct ? null : values;
+    }
+    
+    // Quotes each part of a possibly schema-qualified name, as catalog names may need it
+    private static String quoteIdentifier(String name) {
+        StringBuilder quoted = new StringBuilder(name.length() + 4);
+        for (String part : name.split("\\.")) {
+            if (quoted.length() > 0) {
+                quoted.append('.');
+            }
+            quoted.append('"').append(part.replace("\"", "\"\"")).append('"');
+        }
+        return quoted.toString();
+    }
+    
+    private boolean isIndexable(String value) {
+        String trimmed = value.trim();
+        return trimmed.length() >= 2 && trimmed.length() <= maxValueLength
+            && trimmed.chars().anyMatch(Character::isLetter)
+            && !STOP_WORDS.contains(trimmed.toLowerCase());
+    }
+    
+    private Map<String, ColumnStatistics> getColumnStatistics(String tableName) {
+        String sql = """
+            SELECT s.attname AS column_name,
+                   CASE WHEN s.n_distinct >= 0 THEN s.n_distinct ELSE -s.n_distinct * c.reltuples END AS distinct_values,
+                   s.most_common_vals::text::text[] AS most_common_vals
+            FROM pg_stats s
+            JOIN pg_namespace n ON n.nspname = s.schemaname
+            JOIN pg_class c ON c.relnamespace = n.oid AND c.relname = s.tablename
+            WHERE c.oid = to_regclass(?)
+        """;
+        
+        Map<String, ColumnStatistics> statistics = new HashMap<>();
+        try {
+            databaseSchemaService.jdbcTemplateFor(tableName).query(sql, rs -> {
+                List<String> mostCommonValues = null;
+                java.sql.Array array = rs.getArray("most_common_vals");
+                if (array != null) {
+                    mostCommonValues = new ArrayList<>(Arrays.asList((String[]) array.getArray()));
+                }
+                statistics.put(rs.getString("column_name"),
+                    new ColumnStatistics(rs.getDouble("distinct_values"), mostCommonValues));
+            }, tableName);
+        } catch (Exception e) {
+            // Unanalyzed or inaccessible statistics leave the table unindexed until the next refresh
+            logger.debug("Could not read column statistics for {}: {}", tableName, e.getMessage());
+        }
+        return statistics;
+    }
+    
+    private record ColumnStatistics(double distinctValues, List<String> mostCommonValues) {}
+    
+    private record ColumnValue(String table, String column, String value, int cardinality) {}
+    
+    // The values read from a table at a given modification count
+    private record TableValues(long version, Map<String, List<String>> valuesByColumn) {}
+    
+    private record Dictionary(ValueTrie<ColumnValue> trie, Map<String, Set<String>> indexedColumns,
+                              Map<String, TableValues> tables) {
+        static final Dictionary EMPTY = new Dictionary(ValueTrie.<ColumnValue>builder().build(), Map.of(), Map.of());
+    }
+}
\ No newline at end of file
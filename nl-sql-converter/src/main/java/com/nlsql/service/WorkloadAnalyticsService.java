@@ -0,0 +1,290 @@
+package com.nlsql.service;
+
+import com.nlsql.model.QueryResponse;
+import com.nlsql.util.CountMinSketch;
+import com.nlsql.util.LatencyHistogram;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Groups answered queries by shape: the generated SQL with its literals replaced by {@code ?}.
+ * Every shape is counted in a count-min sketch, and the {@code nlsql.workload.top-k} most
+ * frequent ones additionally keep latency percentiles and error counts, so memory stays fixed
+ * however many distinct shapes the workload produces. A shape enters the tracked set once its
+ * estimated count beats the least frequent tracked shape, which it replaces.
+ *
+ * Recording takes no locks; a full scan of the tracked set happens only when a shape is about
+ * to displace another.
+ */
+@Service
+public class WorkloadAnalyticsService {
+    
+    // Questions that failed before any SQL was generated share one shape
+    static final String UNTRANSLATED = "(untranslated)";
+    
+    private static final Pattern FROM_TABLE = Pattern.compile("\\bFROM\\s+([\\w.]+)", Pattern.CASE_INSENSITIVE);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${nlsql.workload.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${nlsql.workload.top-k:100}")
+    private int topK;
+    
+    @Value("${nlsql.workload.sketch.depth:4}")
+    private int sketchDepth;
+    
+    @Value("${nlsql.workload.sketch.width:2048}")
+    private int sketchWidth;
+    
+    private CountMinSketch sketch;
+    
+    private final ConcurrentHashMap<Long, Shape> tracked = new ConcurrentHashMap<>();
+    
+    private final LongAdder totalQueries = new LongAdder();
+    
+    // Estimated count a new shape must beat to displace a tracked one
+    private volatile long admissionThreshold;
+    
+    @PostConstruct
+    public void init() {
+        sketch = new CountMinSketch(sketchDepth, sketchWidth);
+        Gauge.builder("nlsql.workload.shapes.tracked", tracked, ConcurrentHashMap::size)
+            .description("Query shapes with per-shape latency and error statistics")
+            .register(meterRegistry);
+    }
+    
+    /** Records one answered query and how long the caller waited for it. */
+    public void record(QueryResponse response, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        
+        String text = response.getSql() != null ? fingerprint(response.getSql()) : UNTRANSLATED;
+        long hash = hash(text);
+        long estimate = sketch.add(hash);
+        totalQueries.increment();
+        
+        Shape shape = tracked.get(hash);
+        if (shape == null) {
+            shape = admit(hash, text, response.getSql(), estimate);
+        }
+        if (shape != null) {
+            shape.record(nanos, response.getError() != null);
+        }
+    }
+    
+    private Shape admit(long hash, String text, String sql, long estimate) {
+        if (tracked.size() >= topK) {
+            if (estimate <= admissionThreshold) {
+                return null;
+            }
+            if (!evictLeastFrequent(estimate)) {
+                return null;
+            }
+        }
+        return tracked.computeIfAbsent(hash, h -> new Shape(h, text, tableOf(sql), queryTypeOf(sql)));
+    }
+    
+    /**
+     * Removes the tracked shape with the lowest estimated count if it is below {@code estimate}
+     * and raises the admission threshold to the next lowest. Concurrent evictions may pick the
+     * same victim, in which case only one of them frees a place.
+     */
+    private boolean evictLeastFrequent(long estimate) {
+        Shape victim = null;
+        long lowest = Long.MAX_VALUE;
+        long secondLowest = Long.MAX_VALUE;
+        for (Shape shape : tracked.values()) {
+            long count = sketch.estimate(shape.hash);
+            if (count < lowest) {
+                secondLowest = lowest;
+                lowest = count;
+                victim = shape;
+            } else if (count < secondLowest) {
+                secondLowest = count;
+            }
+        }
+        
+        if (victim == null || lowest >= estimate) {
+            admissionThreshold = lowest;
+            return false;
+        }
+        admissionThreshold = Math.min(secondLowest, estimate);
+        return tracked.remove(victim.hash, victim);
+    }
+    
+    /**
+     * Tracked shapes, most frequent first, limited to {@code limit} entries when positive.
+     * Keys are snake_case to match the rest of the API.
+     */
+    public Map<String, Object> report(int limit) {
+        List<Map<String, Object>> shapes = new ArrayList<>();
+        tracked.values().stream()
+            .map(shape -> Map.entry(sketch.estimate(shape.hash), shape))
+            .sorted(Map.Entry.<Long, Shape>comparingByKey(Comparator.reverseOrder()))
+            .limit(limit > 0 ? limit : Long.MAX_VALUE)
+            .forEach(entry -> shapes.add(entry.getValue().describe(entry.getKey())));
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("total_queries", totalQueries.sum());
+        report.put("tracked_shapes", tracked.size());
+        report.put("capacity", topK);
+        report.put("sketch_bytes", sketch.estimatedBytes());
+        report.put("shapes", shapes);
+        return report;
+    }
+    
+    /**
+     * Latency percentile in milliseconds of the shape {@code sql} belongs to, or -1 when that
+     * shape is not among the tracked ones.
+     */
+    public double latencyPercentileMillis(String sql, double percentile) {
+        Shape shape = tracked.get(hash(fingerprint(sql)));
+        return shape != null ? shape.latency.percentileMillis(percentile) : -1;
+    }
+    
+    /**
+     * Replaces string and numeric literals with {@code ?} and collapses whitespace in one pass,
+     * so questions differing only in the values they filter on map to the same shape.
+     */
+    static String fingerprint(String sql) {
+        StringBuilder shape = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // Skip to the closing quote; a doubled quote is an escaped one
+                i++;
+                while (i < sql.length() && (sql.charAt(i) != '\'' || (i + 1 < sql.length() && sql.charAt(i + 1) == '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                shape.append('?');
+                i++;
+            } else if (Character.isDigit(c) && !continuesWord(shape)) {
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                shape.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (shape.length() > 0 && i < sql.length()) {
+                    shape.append(' ');
+                }
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        return shape.toString();
+    }
+    
+    // Digits inside identifiers such as "address2" are not literals
+    private static boolean continuesWord(StringBuilder shape) {
+        if (shape.length() == 0) {
+            return false;
+        }
+        char previous = shape.charAt(shape.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_';
+    }
+    
+    private static String tableOf(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher matcher = FROM_TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    private static String queryTypeOf(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        return sql.toUpperCase().contains("COUNT(*)") ? "COUNT" : "SELECT";
+    }
+    
+    // 64-bit FNV-1a; shapes are identified by the hash alone, collisions are negligible at top-K sizes
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    private static final class Shape {
+        
+        private final long hash;
+        private final String text;
+        private final String tableName;
+        private final String queryType;
+        private final Instant trackedSince = Instant.now();
+        
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile long lastSeenMillis;
+        
+        Shape(long hash, String text, String tableName, String queryType) {
+            this.hash = hash;
+            this.text = text;
+            this.tableName = tableName;
+            this.queryType = queryType;
+        }
+        
+        void record(long nanos, boolean failed) {
+            executions.increment();
+            if (failed) {
+                errors.increment();
+            }
+            latency.record(nanos);
+            lastSeenMillis = System.currentTimeMillis();
+        }
+        
+        Map<String, Object> describe(long estimatedCount) {
+            long observed = executions.sum();
+            long failed = errors.sum();
+            
+            Map<String, Object> latencyMs = new LinkedHashMap<>();
+            latencyMs.put("p50", latency.percentileMillis(50));
+            latencyMs.put("p95", latency.percentileMillis(95));
+            latencyMs.put("p99", latency.percentileMillis(99));
+            
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("fingerprint", String.format("%016x", hash));
+            description.put("sql", text);
+            description.put("table", tableName);
+            description.put("query_type", queryType);
+            // Sketch estimate over the whole run; the statistics below cover only the time tracked
+            description.put("estimated_count", estimatedCount);
+            description.put("observed_count", observed);
+            description.put("error_count", failed);
+            description.put("error_rate", observed > 0 ? (double) failed / observed : 0.0);
+            description.put("latency_ms", latencyMs);
+            description.put("tracked_since", trackedSince.toString());
+            description.put("last_seen", Instant.ofEpochMilli(lastSeenMillis).toString());
+            return description;
+        }
+    }
+}
\ No newline at end of file
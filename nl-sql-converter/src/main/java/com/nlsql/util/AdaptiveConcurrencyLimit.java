@@ -0,0 +1,102 @@
+package com.nlsql.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that adapts to observed latency with AIMD: every request completing under
+ * the latency threshold while the limit is in use raises it by {@code 1/limit} (about one per
+ * round of requests), and a request over the threshold cuts it by the backoff ratio. Only
+ * requests that started after the previous cut can trigger the next one, so a single slow
+ * spell costs one decrease rather than one per request caught in it.
+ *
+ * All state is in atomics; acquiring and releasing never block.
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    // The limit is kept in fixed point so fractional additive increases accumulate
+    private static final long SCALE = 1000;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong scaledLimit;
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+    
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+                                    double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.scaledLimit = new AtomicLong(Math.max(minLimit, Math.min(maxLimit, initialLimit)) * SCALE);
+    }
+    
+    /** Takes a slot, or returns false without waiting when the limit is reached. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Returns a slot taken by {@link #tryAcquire} and feeds the request's latency into the
+     * limit. {@code startNanos} is the {@code System.nanoTime()} at which it was admitted.
+     */
+    public void release(long startNanos) {
+        long now = System.nanoTime();
+        int wasInFlight = inFlight.getAndDecrement();
+        
+        if (now - startNanos > latencyThresholdNanos) {
+            decrease(startNanos, now);
+        } else if (wasInFlight * 2 >= getLimit()) {
+            // Growing an idle limit would only let a later burst through unchecked
+            increase();
+        }
+    }
+    
+    private void increase() {
+        while (true) {
+            long current = scaledLimit.get();
+            long next = Math.min(maxLimit * SCALE, current + SCALE * SCALE / current);
+            if (next == current || scaledLimit.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+    
+    private void decrease(long startNanos, long now) {
+        long lastDecrease = lastDecreaseNanos.get();
+        if (startNanos - lastDecrease < 0 || !lastDecreaseNanos.compareAndSet(lastDecrease, now)) {
+            return;
+        }
+        while (true) {
+            long current = scaledLimit.get();
+            long next = Math.max(minLimit * SCALE, (long) (current * backoffRatio));
+            if (next == current || scaledLimit.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+    
+    public int getLimit() {
+        return (int) (scaledLimit.get() / SCALE);
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public boolean isSaturated() {
+        return getInFlight() >= getLimit();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.nlsql.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over 64-bit item hashes: a fixed {@code depth x width} grid of counters in
+ * which every item increments one counter per row. The smallest of an item's counters bounds
+ * its true count from above, overestimating by at most {@code e * total / width} with
+ * probability {@code 1 - exp(-depth)}. Memory is fixed whatever the number of distinct items,
+ * and counters are updated with atomic adds only.
+ */
+public class CountMinSketch {
+    
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+    
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+    
+    /** Counts one occurrence and returns the item's new estimated count. */
+    public long add(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, hash)));
+        }
+        return estimate;
+    }
+    
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, hash)));
+        }
+        return estimate;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+    
+    public long estimatedBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+    
+    private int index(int row, long hash) {
+        // Each row re-mixes the hash with its own odd multiplier (splitmix64 finalizer)
+        long h = hash + (row + 1) * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return row * width + (int) Long.remainderUnsigned(h, width);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.nlsql.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size latency histogram with four buckets per power of two of microseconds, so any
+ * reported percentile is within about 19% of the true value. Recording is a single atomic
+ * increment; percentiles are read from a racy but monotonic snapshot of the buckets.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKETS = 4;
+    // 2^32 microseconds is over an hour; anything slower lands in the last bucket
+    private static final int BUCKETS = 32 * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(1, nanos / 1000)));
+    }
+    
+    /** Upper bound, in milliseconds, of the bucket holding the given percentile (0-100). */
+    public double percentileMillis(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1000.0;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1000.0;
+    }
+    
+    private static int bucket(long micros) {
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        // The two bits below the leading one pick the sub-bucket
+        int sub = exponent >= 2 ? (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1) : 0;
+        return Math.min(BUCKETS - 1, exponent * SUB_BUCKETS + sub);
+    }
+    
+    private static double upperBoundMicros(int bucket) {
+        int exponent = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        return Math.pow(2, exponent) * (1 + (sub + 1) / (double) SUB_BUCKETS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.nlsql.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one computation. The first caller (the
+ * leader) runs the work; callers arriving while it is in flight (followers) wait for and share
+ * its result or exception. Nothing is cached: the key is released as soon as the leader finishes.
+ *
+ * Followers wait at most {@code maxWaitMillis}; after that they run the work themselves so a
+ * stuck leader cannot stall everyone behind it.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public V execute(K key, Supplier<V> work, long maxWaitMillis) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing == null) {
+            leaders.increment();
+            try {
+                V value = work.get();
+                call.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        followers.increment();
+        try {
+            return existing.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return work.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight call", e);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    public long getFollowerCount() {
+        return followers.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /** Share of calls that were served by another caller's computation. */
+    public double getCoalescingRatio() {
+        long followerCount = followers.sum();
+        long total = leaders.sum() + followerCount;
+        return total == 0 ? 0.0 : (double) (followerCount - timeouts.sum()) / total;
+    }
+}
@@ -0,0 +1,27 @@
+package com.nlsql.util;
+
+import java.util.Set;
+
+/**
+ * Interprets string literals the way PostgreSQL does when comparing them to typed columns,
+ * for code that evaluates generated predicates without a database.
+ */
+public class SqlLiterals {
+    
+    private static final Set<String> TRUE_LITERALS = Set.of("true", "t", "yes", "y", "on", "1");
+    private static final Set<String> FALSE_LITERALS = Set.of("false", "f", "no", "n", "off", "0");
+    
+    private SqlLiterals() {}
+    
+    /** Returns the boolean a literal denotes, or null when PostgreSQL would reject it. */
+    public static Boolean parseBoolean(String literal) {
+        String normalized = literal.trim().toLowerCase();
+        if (TRUE_LITERALS.contains(normalized)) {
+            return Boolean.TRUE;
+        }
+        if (FALSE_LITERALS.contains(normalized)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.nlsql.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: instead of a token count and a refill timestamp it
+ * keeps one "theoretical arrival time", the instant at which the bucket would be full again.
+ * Taking a token pushes that instant one emission interval further; a request is refused when
+ * doing so would put it more than the burst allowance ahead of now. A single compare-and-set
+ * updates the whole state.
+ */
+public class TokenBucket {
+    
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalNanos;
+    
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    }
+    
+    /**
+     * Takes a token. Returns 0 on success, otherwise the nanoseconds until one will be
+     * available.
+     */
+    public long tryAcquire() {
+        return tryAcquire(1);
+    }
+    
+    /**
+     * Takes {@code permits} tokens at once, or none. Returns 0 on success, otherwise the
+     * nanoseconds until that many will be available; more than the burst never are.
+     */
+    public long tryAcquire(int permits) {
+        long now = System.nanoTime();
+        while (true) {
+            long arrival = theoreticalArrivalNanos.get();
+            long next = Math.max(arrival, now) + emissionIntervalNanos * permits;
+            long ahead = next - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    /** Whether the bucket has refilled completely, i.e. the client has been idle. */
+    public boolean isFull() {
+        return theoreticalArrivalNanos.get() - System.nanoTime() <= 0;
+    }
+    
+    /**
+     * The {@link System#nanoTime} instant at which the bucket will be full again. Buckets that
+     * refill soonest belong to the clients that were quiet the longest or asked the least.
+     */
+    public long getFullAtNanos() {
+        return theoreticalArrivalNanos.get();
+    }
+}
\ No newline at end of file
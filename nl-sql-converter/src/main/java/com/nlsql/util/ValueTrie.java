@@ -0,0 +1,183 @@
+package com.nlsql.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable character trie mapping lower-cased phrases to the values they denote, used to find
+ * known literals in free text in a single left-to-right pass.
+ *
+ * Nodes are flattened into parallel arrays (label, first child, next sibling, payload slot) so
+ * the whole index is a handful of primitive arrays rather than one object per node.
+ */
+public class ValueTrie<V> {
+    
+    private static final int NONE = -1;
+    
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] payloadSlot;
+    private final List<List<V>> payloads;
+    
+    private ValueTrie(char[] labels, int[] firstChild, int[] nextSibling, int[] payloadSlot, List<List<V>> payloads) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.payloadSlot = payloadSlot;
+        this.payloads = payloads;
+    }
+    
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+    
+    /** Number of distinct phrases in the trie. */
+    public int size() {
+        return payloads.size();
+    }
+    
+    /** Rough heap footprint of the node arrays, excluding the payload objects themselves. */
+    public long estimatedBytes() {
+        return (long) labels.length * (Character.BYTES + 3 * Integer.BYTES) + (long) payloads.size() * 16;
+    }
+    
+    /**
+     * Finds the phrases occurring in {@code text}, which must already be lower-cased. Matches
+     * start and end on word boundaries, do not overlap, and the longest phrase wins at each
+     * position, so "new york city" is preferred over "new york".
+     */
+    public List<Match<V>> findAll(String text) {
+        List<Match<V>> matches = new ArrayList<>();
+        int length = text.length();
+        int start = 0;
+        
+        while (start < length) {
+            if (start > 0 && isWordChar(text.charAt(start - 1))) {
+                start++;
+                continue;
+            }
+            
+            int node = 0;
+            int end = NONE;
+            int matchedNode = NONE;
+            for (int i = start; i < length; i++) {
+                node = child(node, text.charAt(i));
+                if (node == NONE) {
+                    break;
+                }
+                if (payloadSlot[node] != NONE && (i + 1 == length || !isWordChar(text.charAt(i + 1)))) {
+                    end = i + 1;
+                    matchedNode = node;
+                }
+            }
+            
+            if (matchedNode == NONE) {
+                start++;
+            } else {
+                matches.add(new Match<>(start, end, payloads.get(payloadSlot[matchedNode])));
+                start = end;
+            }
+        }
+        return matches;
+    }
+    
+    private int child(int node, char label) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labels[child] == label) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+    
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+    
+    /** A phrase found at {@code [start, end)} of the searched text and the values it denotes. */
+    public record Match<V>(int start, int end, List<V> values) {}
+    
+    /** Collects phrases into a mutable tree, then flattens it. Not thread-safe. */
+    public static class Builder<V> {
+        
+        private final Node<V> root = new Node<>();
+        private int nodeCount = 1;
+        private int phraseCount;
+        
+        /** Adds a value under a phrase; a phrase may carry several values. */
+        public Builder<V> add(String phrase, V value) {
+            String key = phrase.toLowerCase(Locale.ROOT);
+            if (key.isEmpty()) {
+                return this;
+            }
+            
+            Node<V> node = root;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                Node<V> child = node.children.get(c);
+                if (child == null) {
+                    child = new Node<>();
+                    node.children.put(c, child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            if (node.values == null) {
+                node.values = new ArrayList<>(1);
+                phraseCount++;
+            }
+            node.values.add(value);
+            return this;
+        }
+        
+        public int phraseCount() {
+            return phraseCount;
+        }
+        
+        public ValueTrie<V> build() {
+            char[] labels = new char[nodeCount];
+            int[] firstChild = new int[nodeCount];
+            int[] nextSibling = new int[nodeCount];
+            int[] payloadSlot = new int[nodeCount];
+            List<List<V>> payloads = new ArrayList<>(phraseCount);
+            Arrays.fill(firstChild, NONE);
+            Arrays.fill(nextSibling, NONE);
+            Arrays.fill(payloadSlot, NONE);
+            
+            // Breadth-first numbering keeps siblings next to each other in the arrays
+            List<Node<V>> order = new ArrayList<>(nodeCount);
+            order.add(root);
+            for (int index = 0; index < order.size(); index++) {
+                Node<V> node = order.get(index);
+                if (node.values != null) {
+                    payloadSlot[index] = payloads.size();
+                    payloads.add(List.copyOf(node.values));
+                }
+                
+                int previous = NONE;
+                for (Map.Entry<Character, Node<V>> child : node.children.entrySet()) {
+                    int childIndex = order.size();
+                    order.add(child.getValue());
+                    labels[childIndex] = child.getKey();
+                    if (previous == NONE) {
+                        firstChild[index] = childIndex;
+                    } else {
+                        nextSibling[previous] = childIndex;
+                    }
+                    previous = childIndex;
+                }
+            }
+            return new ValueTrie<>(labels, firstChild, nextSibling, payloadSlot, payloads);
+        }
+        
+        private static class Node<V> {
+            private final Map<Character, Node<V>> children = new TreeMap<>();
+            private List<V> values;
+        }
+    }
+}
\ No newline at end of file
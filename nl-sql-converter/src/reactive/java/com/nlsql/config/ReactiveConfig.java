@@ -0,0 +1,20 @@
+package com.nlsql.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Serves the {@code reactive} profile from Netty. Spring Boot would otherwise run WebFlux on
+ * Tomcat, which the servlet stack keeps on the classpath.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+    
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
\ No newline at end of file
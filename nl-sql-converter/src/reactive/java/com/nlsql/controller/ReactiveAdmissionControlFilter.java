@@ -0,0 +1,71 @@
+package com.nlsql.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.service.AdmissionControlService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+/**
+ * The {@code reactive} profile's counterpart of {@link AdmissionControlInterceptor}: admits query
+ * and stream requests before they reach the controller and releases their slot once the response,
+ * including a streamed body, has been written.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveAdmissionControlFilter implements WebFilter {
+    
+    private static final Set<String> ADMITTED_PATHS = Set.of("/query", "/query/stream");
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST
+                || !ADMITTED_PATHS.contains(request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        AdmissionControlService.Admission admission = admissionControlService.admit(
+            request.getHeaders().getFirst(AdmissionControlInterceptor.API_KEY_HEADER),
+            remoteAddress == null ? null : remoteAddress.getAddress().getHostAddress());
+        
+        switch (admission.getStatus()) {
+            case RATE_LIMITED:
+                return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, admission.getRetryAfterSeconds(),
+                    "Rate limit exceeded");
+            case OVERLOADED:
+                return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is at its concurrency limit");
+            default:
+                return chain.filter(exchange).doFinally(signal -> admissionControlService.release(admission));
+        }
+    }
+    
+    private Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterSeconds, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(new QueryResponse(message)))
+            .flatMap(body -> response.writeWith(Mono.just(response.bufferFactory().wrap(body))));
+    }
+}
\ No newline at end of file
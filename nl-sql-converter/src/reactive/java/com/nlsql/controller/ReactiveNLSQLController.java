@@ -0,0 +1,103 @@
+package com.nlsql.controller;
+
+import com.nlsql.model.QueryRequest;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.service.AdmissionControlService;
+import com.nlsql.service.NLSQLConverterService;
+import com.nlsql.service.ReactiveQueryExecutionService;
+import com.nlsql.service.WorkloadAnalyticsService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebFlux endpoints of the {@code reactive} profile. Translation still reads the schema over
+ * JDBC, so it runs on the bounded elastic scheduler; execution is non-blocking end to end.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/query")
+@CrossOrigin(origins = "*")
+public class ReactiveNLSQLController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveNLSQLController.class);
+    
+    @Autowired
+    private NLSQLConverterService nlsqlConverterService;
+    
+    @Autowired
+    private ReactiveQueryExecutionService reactiveQueryExecutionService;
+    
+    @Autowired
+    private WorkloadAnalyticsService workloadAnalyticsService;
+    
+    @Autowired
+    private AdmissionControlService admissionControlService;
+    
+    @PostMapping
+    public Mono<ResponseEntity<QueryResponse>> executeQuery(@Valid @RequestBody QueryRequest request) {
+        logger.info("Received query: {}", request.getQuery());
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(new QueryResponse("Cursor pagination is not available on the reactive stack")));
+        }
+        
+        long startNanos = System.nanoTime();
+        return translate(request.getQuery())
+            .flatMap(sql -> reactiveQueryExecutionService.executeQuery(sql)
+                .collectList()
+                .map(results -> new QueryResponse(sql, results)))
+            .onErrorResume(e -> Mono.just(new QueryResponse("Error processing query: " + e.getMessage())))
+            .map(response -> {
+                long elapsedNanos = System.nanoTime() - startNanos;
+                workloadAnalyticsService.record(response, elapsedNanos);
+                response.setExecutionTimeMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                logger.info("Query processed in {} ms", response.getExecutionTimeMs());
+                return ResponseEntity.ok(response);
+            });
+    }
+    
+    /**
+     * Streams result rows as newline-delimited JSON as they arrive from the database, one
+     * object per line. Failures before the first row are reported as a 400 with a single
+     * {@code {"error": ...}} line.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<Map<String, Object>>>> streamQuery(@Valid @RequestBody QueryRequest request) {
+        logger.info("Received streaming query: {}", request.getQuery());
+        
+        return translate(request.getQuery())
+            .map(sql -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveQueryExecutionService.executeQuery(sql)))
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Flux.just(Map.of("error", "Error processing query: " + e.getMessage())))));
+    }
+    
+    // Same body as the servlet stack's: saturation is reported, never failed on
+    @GetMapping("/health")
+    public Mono<String> health() {
+        if (admissionControlService.isSaturated()) {
+            return Mono.just(String.format("NL-SQL Converter is running but saturated: %d of %d query slots in use",
+                admissionControlService.getInFlight(), admissionControlService.getLimit()));
+        }
+        return Mono.just("NL-SQL Converter is running");
+    }
+    
+    private Mono<String> translate(String naturalLanguageQuery) {
+        return Mono.fromCallable(() -> nlsqlConverterService.translate(naturalLanguageQuery))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.nlsql.service;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * R2DBC counterpart of {@link QueryExecutionService} for the {@code reactive} profile. Rows are
+ * fetched from a server-side portal {@code nlsql.reactive.fetch-size} at a time as subscribers
+ * request them, so a slow client holds back the database instead of buffering the result.
+ *
+ * The pool is owned here rather than exposed as a {@code ConnectionFactory} bean, which would
+ * make Spring Boot drop the JDBC DataSource that schema lookups and the caches still use.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveQueryExecutionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveQueryExecutionService.class);
+    
+    @Autowired
+    private QueryExecutionService queryExecutionService;
+    
+    @Autowired
+    private DataSourceRegistry dataSourceRegistry;
+    
+    @Value("${nlsql.reactive.url:r2dbc:postgresql://localhost:5432/nlsql_db}")
+    private String url;
+    
+    @Value("${nlsql.reactive.username:${spring.datasource.username:}}")
+    private String username;
+    
+    @Value("${nlsql.reactive.password:${spring.datasource.password:}}")
+    private String password;
+    
+    @Value("${nlsql.reactive.pool.max-size:20}")
+    private int maxPoolSize;
+    
+    @Value("${nlsql.reactive.fetch-size:256}")
+    private int fetchSize;
+    
+    private ConnectionPool connectionPool;
+    private DatabaseClient databaseClient;
+    
+    @PostConstruct
+    public void initConnectionPool() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+            .builder(ConnectionFactories.get(options.build()))
+            .maxSize(maxPoolSize)
+            .build());
+        databaseClient = DatabaseClient.create(connectionPool);
+        logger.info("R2DBC pool of up to {} connections for {}", maxPoolSize, url);
+    }
+    
+    @PreDestroy
+    public void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+    
+    /**
+     * Streams the rows of a statement after the same validation and row cap the blocking
+     * backend applies. Validation happens on the calling thread, so a rejected statement
+     * throws before any response has been started. The R2DBC pool only reaches the primary
+     * source, so statements owned by another federated source are refused.
+     */
+    public Flux<Map<String, Object>> executeQuery(String sql) {
+        logger.debug("Executing SQL reactively: {}", sql);
+        queryExecutionService.validateSQL(sql);
+        String sourceName = queryExecutionService.getSourceName(sql);
+        if (!dataSourceRegistry.getPrimary().getName().equals(sourceName)) {
+            throw new IllegalArgumentException("Source " + sourceName + " is not available to the reactive stack");
+        }
+        String limitedSql = queryExecutionService.addLimitIfNeeded(sql);
+        
+        return databaseClient.sql(limitedSql)
+            .filter(statement -> statement.fetchSize(fetchSize))
+            .fetch()
+            .all()
+            .doOnError(e -> logger.error("Error executing SQL: {}", e.getMessage()));
+    }
+}
\ No newline at end of file
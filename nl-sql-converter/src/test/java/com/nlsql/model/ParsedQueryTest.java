@@ -0,0 +1,121 @@
+package com.nlsql.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParsedQueryTest {
+    
+    private static final String EMPLOYEES = new String("employees");
+    private static final String CITY = new String("city");
+    private static final String SALARY = new String("salary");
+    private static final String DEPARTMENT = new String("department");
+    
+    private final ParsedQuery query = ParsedQuery.builder()
+        .queryType(ParsedQuery.QueryType.SELECT)
+        .tableName(EMPLOYEES)
+        .column(CITY)
+        .column(SALARY)
+        .condition(CITY, "Mumbai")
+        .condition(DEPARTMENT, "Engineering")
+        .groupBy(DEPARTMENT)
+        .orderBy(SALARY)
+        .orderDirection("DESC")
+        .limit(10)
+        .build();
+    
+    @Test
+    void mapNamesReturnsTheSameInstanceWhenNothingChanges() {
+        assertThat(query.mapNames(EMPLOYEES, UnaryOperator.identity())).isSameAs(query);
+    }
+    
+    @Test
+    void mapNamesComparesNamesByIdentity() {
+        // Equal but not the schema's own instances, so the query is copied onto them
+        String table = new String("employees");
+        ParsedQuery mapped = query.mapNames(table, name -> new String(name));
+        
+        assertThat(mapped).isNotSameAs(query);
+        assertThat(mapped.getTableName()).isSameAs(table);
+        assertThat(mapped.getColumn(0)).isEqualTo("city").isNotSameAs(CITY);
+    }
+    
+    @Test
+    void mapNamesRenamesEveryReferenceAndLeavesTheOriginalAlone() {
+        Map<String, String> schema = Map.of("city", "location", "salary", "pay", "department", "dept");
+        
+        ParsedQuery mapped = query.mapNames("staff", schema::get);
+        
+        assertThat(mapped.getTableName()).isEqualTo("staff");
+        assertThat(mapped.getColumn(0)).isEqualTo("location");
+        assertThat(mapped.getColumn(1)).isEqualTo("pay");
+        assertThat(mapped.getConditionValue("location")).isEqualTo("Mumbai");
+        assertThat(mapped.getConditionValue("dept")).isEqualTo("Engineering");
+        assertThat(mapped.getGroupByColumn(0)).isEqualTo("dept");
+        assertThat(mapped.getOrderBy()).isEqualTo("pay");
+        assertThat(mapped.getOrderDirection()).isEqualTo("DESC");
+        assertThat(mapped.getLimit()).isEqualTo(10);
+        
+        assertThat(query.getTableName()).isSameAs(EMPLOYEES);
+        assertThat(query.getColumn(0)).isSameAs(CITY);
+        assertThat(query.getConditionColumn(1)).isSameAs(DEPARTMENT);
+    }
+    
+    @Test
+    void mapNamesDropsUnmappedColumns() {
+        ParsedQuery mapped = query.mapNames(EMPLOYEES, name -> name == SALARY ? null : name);
+        
+        assertThat(mapped.getColumnCount()).isEqualTo(1);
+        assertThat(mapped.getColumn(0)).isSameAs(CITY);
+        assertThat(mapped.getOrderBy()).isNull();
+        assertThat(mapped.getConditionCount()).isEqualTo(2);
+        
+        ParsedQuery withoutCity = query.mapNames(EMPLOYEES, name -> name == CITY ? null : name);
+        assertThat(withoutCity.getConditionCount()).isEqualTo(1);
+        assertThat(withoutCity.getConditionColumn(0)).isSameAs(DEPARTMENT);
+        assertThat(withoutCity.getConditionValue(0)).isEqualTo("Engineering");
+    }
+    
+    @Test
+    void mapNamesMergesConditionsRenamedOntoTheSameColumn() {
+        // Both filters resolve to one column: first position, last value
+        ParsedQuery mapped = query.mapNames(EMPLOYEES, name -> name == DEPARTMENT ? CITY : name);
+        
+        assertThat(mapped.getConditionCount()).isEqualTo(1);
+        assertThat(mapped.getConditionColumn(0)).isSameAs(CITY);
+        assertThat(mapped.getConditionValue(0)).isEqualTo("Engineering");
+    }
+    
+    @Test
+    void builderIgnoresRepeatedColumnsAndReplacesConditionValues() {
+        ParsedQuery built = ParsedQuery.builder()
+            .queryType(ParsedQuery.QueryType.COUNT)
+            .tableName("employees")
+            .column("city")
+            .column("CITY")
+            .groupBy("department")
+            .groupBy("Department")
+            .condition("city", "Delhi")
+            .condition("city", "Pune")
+            .build();
+        
+        assertThat(built.getColumnCount()).isEqualTo(1);
+        assertThat(built.getGroupByCount()).isEqualTo(1);
+        assertThat(built.getConditionCount()).isEqualTo(1);
+        assertThat(built.getConditionValue("city")).isEqualTo("Pune");
+        assertThat(built.getConditionValue("salary")).isNull();
+    }
+    
+    @Test
+    void toBuilderDoesNotShareStateWithTheQuery() {
+        ParsedQuery derived = query.toBuilder().column("age").condition("age", 30).build();
+        
+        assertThat(derived.getColumnCount()).isEqualTo(3);
+        assertThat(derived.getConditionCount()).isEqualTo(3);
+        assertThat(query.getColumnCount()).isEqualTo(2);
+        assertThat(query.getConditionCount()).isEqualTo(2);
+    }
+}
\ No newline at end of file
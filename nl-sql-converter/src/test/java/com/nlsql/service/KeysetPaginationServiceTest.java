@@ -0,0 +1,212 @@
+package com.nlsql.service;
+
+import com.nlsql.model.ParsedQuery;
+import com.nlsql.model.QueryResponse;
+import com.nlsql.model.TableInfo;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPaginationServiceTest {
+    
+    private static final int PAGE_SIZE = 3;
+    
+    private static final TableInfo ITEMS = items();
+    
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    
+    private KeysetPaginationService service;
+    
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE items (id integer PRIMARY KEY, score integer, label text NOT NULL)");
+        // Runs of equal scores and NULLs that straddle page boundaries
+        jdbcTemplate.execute("""
+            INSERT INTO items VALUES
+                (1, 10, 'a'), (2, NULL, 'b'), (3, 10, 'a'), (4, 20, 'a'), (5, 10, 'b'), (6, NULL, 'a'),
+                (7, 5, 'a'), (8, 10, 'a'), (9, NULL, 'a'), (10, 20, 'b'), (11, 10, 'a'), (12, NULL, 'b'),
+                (13, 5, 'b'), (14, 10, 'a')
+            """);
+    }
+    
+    @AfterAll
+    static void stopDatabase() throws Exception {
+        postgres.close();
+    }
+    
+    @BeforeEach
+    void createService() {
+        service = newService("test-secret");
+    }
+    
+    @Test
+    void pagesAscendingThroughDuplicateSortKeysAndNulls() {
+        List<Integer> paged = pageThrough(query("score", "ASC").build(), "SELECT * FROM items");
+        
+        assertThat(paged).containsExactlyElementsOf(
+            ids("SELECT id FROM items ORDER BY score ASC NULLS LAST, id ASC"));
+    }
+    
+    @Test
+    void pagesDescendingThroughDuplicateSortKeysAndNulls() {
+        List<Integer> paged = pageThrough(query("score", "DESC").build(), "SELECT * FROM items");
+        
+        assertThat(paged).containsExactlyElementsOf(
+            ids("SELECT id FROM items ORDER BY score DESC NULLS LAST, id DESC"));
+    }
+    
+    @Test
+    void pagesFilteredQueries() {
+        ParsedQuery parsedQuery = query("score", "ASC").condition("label", "a").build();
+        
+        List<Integer> paged = pageThrough(parsedQuery, "SELECT * FROM items WHERE label = 'a'");
+        
+        assertThat(paged).containsExactlyElementsOf(
+            ids("SELECT id FROM items WHERE label = 'a' ORDER BY score ASC NULLS LAST, id ASC"));
+    }
+    
+    @Test
+    void pagesByPrimaryKeyWithoutSortColumn() {
+        List<Integer> paged = pageThrough(query(null, null).build(), "SELECT * FROM items");
+        
+        assertThat(paged).containsExactlyElementsOf(ids("SELECT id FROM items ORDER BY id"));
+    }
+    
+    @Test
+    void rejectsTamperedPayload() {
+        String token = secondPageCursor();
+        String[] parts = token.split("\\.");
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        String payload = new String(decoder.decode(parts[0]), StandardCharsets.UTF_8);
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(payload.replace("FROM items", "FROM secrets").getBytes(StandardCharsets.UTF_8));
+        
+        assertThatThrownBy(() -> service.planNextPage(tampered + "." + parts[1]))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid cursor signature");
+    }
+    
+    @Test
+    void rejectsCursorSignedWithAnotherKey() {
+        String token = newService("another-secret").toResponse(firstPage(), rows(PAGE_SIZE + 1)).getNextCursor();
+        
+        assertThatThrownBy(() -> service.planNextPage(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid cursor signature");
+    }
+    
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> service.planNextPage("not-a-cursor"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Malformed cursor");
+        assertThatThrownBy(() -> service.planNextPage("!!!.???"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Malformed cursor");
+    }
+    
+    @Test
+    void rejectsExpiredCursor() {
+        String token = secondPageCursor();
+        
+        ReflectionTestUtils.setField(service, "clock", Clock.offset(Clock.systemUTC(), Duration.ofHours(2)));
+        
+        assertThatThrownBy(() -> service.planNextPage(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Expired cursor");
+    }
+    
+    @Test
+    void acceptsCursorWithinItsLifetime() {
+        String token = secondPageCursor();
+        
+        ReflectionTestUtils.setField(service, "clock", Clock.offset(Clock.systemUTC(), Duration.ofMinutes(59)));
+        
+        assertThat(service.planNextPage(token).getSql()).contains("LIMIT " + (PAGE_SIZE + 1));
+    }
+    
+    // Follows next_cursor from the first page to the last, as a client would
+    private List<Integer> pageThrough(ParsedQuery parsedQuery, String baseSql) {
+        Function<ParsedQuery, String> sqlGenerator = base -> baseSql;
+        KeysetPaginationService.KeysetPage page = service.planFirstPage(parsedQuery, ITEMS, sqlGenerator);
+        
+        List<Integer> ids = new ArrayList<>();
+        for (int pages = 0; pages < 20; pages++) {
+            List<Map<String, Object>> results = jdbcTemplate.queryForList(page.getSql(), page.getParams());
+            QueryResponse response = service.toResponse(page, results);
+            assertThat(response.getResults()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            response.getResults().forEach(row -> ids.add((Integer) row.get("id")));
+            if (response.getNextCursor() == null) {
+                return ids;
+            }
+            page = service.planNextPage(response.getNextCursor());
+        }
+        throw new AssertionError("Pagination did not terminate: " + ids);
+    }
+    
+    private String secondPageCursor() {
+        return service.toResponse(firstPage(), rows(PAGE_SIZE + 1)).getNextCursor();
+    }
+    
+    private KeysetPaginationService.KeysetPage firstPage() {
+        return service.planFirstPage(query("score", "ASC").build(), ITEMS, base -> "SELECT * FROM items");
+    }
+    
+    private static List<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            rows.add(Map.of("id", i, "score", 10, "label", "a"));
+        }
+        return rows;
+    }
+    
+    private static List<Integer> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Integer.class);
+    }
+    
+    private static ParsedQuery.Builder query(String orderBy, String orderDirection) {
+        return ParsedQuery.builder()
+            .queryType(ParsedQuery.QueryType.SELECT)
+            .tableName("items")
+            .orderBy(orderBy)
+            .orderDirection(orderDirection);
+    }
+    
+    private static KeysetPaginationService newService(String secret) {
+        KeysetPaginationService service = new KeysetPaginationService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "cursorTtlSeconds", 3600L);
+        service.initSigningKey();
+        return service;
+    }
+    
+    private static TableInfo items() {
+        TableInfo tableInfo = new TableInfo("items", List.of(
+            new TableInfo.ColumnInfo("id", "integer", false),
+            new TableInfo.ColumnInfo("score", "integer", true),
+            new TableInfo.ColumnInfo("label", "text", false)));
+        tableInfo.setPrimaryKey("id");
+        return tableInfo;
+    }
+}
\ No newline at end of file
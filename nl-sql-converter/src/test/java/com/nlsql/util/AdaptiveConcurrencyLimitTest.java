@@ -0,0 +1,168 @@
+package com.nlsql.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+    
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long NEVER_SLOW_NANOS = TimeUnit.HOURS.toNanos(1);
+    
+    @Test
+    void refusesOnceTheLimitIsInUse() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 2, NEVER_SLOW_NANOS, 0.5);
+        
+        long start = System.nanoTime();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.isSaturated()).isTrue();
+        
+        limit.release(start);
+        
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+    
+    @Test
+    void clampsTheInitialLimit() {
+        assertThat(new AdaptiveConcurrencyLimit(100, 1, 10, THRESHOLD_NANOS, 0.5).getLimit()).isEqualTo(10);
+        assertThat(new AdaptiveConcurrencyLimit(0, 2, 10, THRESHOLD_NANOS, 0.5).getLimit()).isEqualTo(2);
+    }
+    
+    @Test
+    void fastRequestsUnderLoadRaiseTheLimitGradually() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 100, NEVER_SLOW_NANOS, 0.5);
+        
+        for (int round = 0; round < 6; round++) {
+            fillAndRelease(limit, System.nanoTime());
+        }
+        
+        // Under one per round: only releases while at least half the limit is in use count
+        assertThat(limit.getLimit()).isBetween(6, 10);
+    }
+    
+    @Test
+    void idleCompletionsDoNotRaiseTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, NEVER_SLOW_NANOS, 0.5);
+        
+        for (int i = 0; i < 100; i++) {
+            long start = System.nanoTime();
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(start);
+        }
+        
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+    
+    @Test
+    void neverGrowsPastTheMaximum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 5, NEVER_SLOW_NANOS, 0.5);
+        
+        for (int round = 0; round < 20; round++) {
+            fillAndRelease(limit, System.nanoTime());
+        }
+        
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+    
+    @Test
+    void aSlowSpellCutsTheLimitOnce() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(16, 1, 100, THRESHOLD_NANOS, 0.5);
+        
+        // Four requests caught in the same slow spell
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        sleepPastThreshold();
+        for (int i = 0; i < 4; i++) {
+            limit.release(start);
+        }
+        assertThat(limit.getLimit()).isEqualTo(8);
+        
+        // A request admitted after the cut can trigger the next one
+        long later = System.nanoTime();
+        assertThat(limit.tryAcquire()).isTrue();
+        sleepPastThreshold();
+        limit.release(later);
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+    
+    @Test
+    void neverFallsBelowTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 3, 10, THRESHOLD_NANOS, 0.1);
+        
+        long start = System.nanoTime();
+        assertThat(limit.tryAcquire()).isTrue();
+        sleepPastThreshold();
+        limit.release(start);
+        
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+    
+    @Test
+    void concurrentCallersNeverExceedAFixedLimit() throws Exception {
+        int threads = 8;
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 3, 3, NEVER_SLOW_NANOS, 0.5);
+        AtomicInteger holding = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        
+        try {
+            List<Future<Integer>> admitted = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                admitted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        long admittedAt = System.nanoTime();
+                        if (limit.tryAcquire()) {
+                            peak.accumulateAndGet(holding.incrementAndGet(), Math::max);
+                            holding.decrementAndGet();
+                            limit.release(admittedAt);
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            
+            int total = 0;
+            for (Future<Integer> count : admitted) {
+                total += count.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(total).isPositive();
+            assertThat(peak.get()).isLessThanOrEqualTo(3);
+            assertThat(limit.getInFlight()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static void fillAndRelease(AdaptiveConcurrencyLimit limit, long start) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.release(start);
+        }
+    }
+    
+    private static void sleepPastThreshold() throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(THRESHOLD_NANOS * 5);
+    }
+}
\ No newline at end of file
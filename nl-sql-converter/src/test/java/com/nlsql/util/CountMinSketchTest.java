@@ -0,0 +1,78 @@
+package com.nlsql.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+    
+    @Test
+    void countsExactlyWhileItemsDoNotCollide() {
+        CountMinSketch sketch = new CountMinSketch(4, 2048);
+        
+        for (int i = 0; i < 5; i++) {
+            sketch.add(42L);
+        }
+        sketch.add(7L);
+        
+        assertThat(sketch.estimate(42L)).isEqualTo(5);
+        assertThat(sketch.estimate(7L)).isEqualTo(1);
+        assertThat(sketch.estimate(99L)).isZero();
+    }
+    
+    @Test
+    void addReturnsTheNewEstimate() {
+        CountMinSketch sketch = new CountMinSketch(4, 2048);
+        
+        assertThat(sketch.add(1L)).isEqualTo(1);
+        assertThat(sketch.add(1L)).isEqualTo(2);
+        assertThat(sketch.add(1L)).isEqualTo(sketch.estimate(1L));
+    }
+    
+    @Test
+    void neverUnderestimatesAndStaysWithinTheErrorBound() {
+        int width = 64;
+        CountMinSketch sketch = new CountMinSketch(4, width);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(1);
+        int total = 20_000;
+        
+        // Skewed stream over far more items than counters per row
+        for (int i = 0; i < total; i++) {
+            long item = (long) Math.floor(Math.pow(random.nextDouble(), 3) * 1000);
+            sketch.add(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+        
+        double bound = Math.E * total / width;
+        long withinBound = 0;
+        for (Map.Entry<Long, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() <= bound) {
+                withinBound++;
+            }
+        }
+        // The bound holds per item with probability 1 - exp(-depth), about 98%
+        assertThat((double) withinBound / exact.size()).isGreaterThanOrEqualTo(0.95);
+    }
+    
+    @Test
+    void clearResetsEveryCounter() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        for (long item = 0; item < 100; item++) {
+            sketch.add(item);
+        }
+        
+        sketch.clear();
+        
+        for (long item = 0; item < 100; item++) {
+            assertThat(sketch.estimate(item)).isZero();
+        }
+        assertThat(sketch.estimatedBytes()).isEqualTo(2 * 16 * Long.BYTES);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.nlsql.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    
+    private static final int CALLERS = 8;
+    
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("q", () -> {
+                runs.incrementAndGet();
+                await(release);
+                return "answer";
+            }, 10_000)));
+        }
+        // Hold the leader until every other caller has joined it
+        awaitFollowers(CALLERS - 1);
+        release.countDown();
+        
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("answer");
+        }
+        assertThat(runs).hasValue(1);
+        assertThat(singleFlight.getLeaderCount()).isEqualTo(1);
+        assertThat(singleFlight.getCoalescingRatio()).isEqualTo((double) (CALLERS - 1) / CALLERS);
+        assertThat(singleFlight.getInFlightCount()).isZero();
+    }
+    
+    @Test
+    void followersReceiveTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Future<String> leader = executor.submit(() -> singleFlight.execute("q", () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }, 10_000));
+        awaitInFlight();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("q", () -> "unused", 10_000));
+        awaitFollowers(1);
+        release.countDown();
+        
+        for (Future<String> result : List.of(leader, follower)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("database down");
+        }
+        assertThat(singleFlight.getInFlightCount()).isZero();
+    }
+    
+    @Test
+    void followerRunsTheWorkItselfAfterWaitingTooLong() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Future<String> leader = executor.submit(() -> singleFlight.execute("q", () -> {
+            await(release);
+            return "leader";
+        }, 10_000));
+        awaitInFlight();
+        
+        assertThat(singleFlight.execute("q", () -> "follower", 20)).isEqualTo("follower");
+        assertThat(singleFlight.getTimeoutCount()).isEqualTo(1);
+        
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+    }
+    
+    @Test
+    void nothingIsCachedOnceTheLeaderFinishes() {
+        AtomicInteger runs = new AtomicInteger();
+        
+        singleFlight.execute("q", () -> "first " + runs.incrementAndGet(), 1_000);
+        String second = singleFlight.execute("q", () -> "second " + runs.incrementAndGet(), 1_000);
+        
+        assertThat(second).isEqualTo("second 2");
+        assertThat(singleFlight.getLeaderCount()).isEqualTo(2);
+        assertThat(singleFlight.getFollowerCount()).isZero();
+    }
+    
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Future<String> slow = executor.submit(() -> singleFlight.execute("slow", () -> {
+            await(release);
+            return "slow";
+        }, 10_000));
+        awaitInFlight();
+        
+        assertThat(singleFlight.execute("fast", () -> "fast", 10_000)).isEqualTo("fast");
+        assertThat(singleFlight.getFollowerCount()).isZero();
+        
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+    }
+    
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getInFlightCount() == 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+    
+    private void awaitFollowers(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getFollowerCount() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
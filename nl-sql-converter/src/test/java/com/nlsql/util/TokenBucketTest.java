@@ -0,0 +1,102 @@
+package com.nlsql.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    
+    // One token every 1000 seconds: nothing refills while a test runs
+    private static final double SLOW_RATE = 0.001;
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1000);
+    
+    @Test
+    void allowsTheBurstThenReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(SLOW_RATE, 3);
+        
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire()).isZero();
+        }
+        long wait = bucket.tryAcquire();
+        
+        assertThat(wait).isPositive().isLessThanOrEqualTo(INTERVAL_NANOS);
+    }
+    
+    @Test
+    void takesSeveralPermitsAllOrNothing() {
+        TokenBucket bucket = new TokenBucket(SLOW_RATE, 3);
+        
+        assertThat(bucket.tryAcquire(2)).isZero();
+        assertThat(bucket.tryAcquire(2)).isPositive();
+        assertThat(bucket.tryAcquire(1)).isZero();
+        assertThat(bucket.tryAcquire(1)).isPositive();
+    }
+    
+    @Test
+    void neverGrantsMoreThanTheBurstAtOnce() {
+        TokenBucket bucket = new TokenBucket(SLOW_RATE, 3);
+        
+        assertThat(bucket.tryAcquire(4)).isEqualTo(INTERVAL_NANOS);
+        assertThat(bucket.isFull()).isTrue();
+    }
+    
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        
+        long first = bucket.tryAcquire();
+        boolean full = bucket.isFull();
+        long wait = bucket.tryAcquire();
+        
+        assertThat(first).isZero();
+        assertThat(full).isFalse();
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(1));
+        
+        assertThat(bucket.isFull()).isTrue();
+        assertThat(bucket.tryAcquire()).isZero();
+    }
+    
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheBurst() throws Exception {
+        int burst = 100;
+        int threads = 8;
+        TokenBucket bucket = new TokenBucket(SLOW_RATE, burst);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        
+        try {
+            List<Future<Integer>> granted = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                granted.add(executor.submit(() -> {
+                    start.await();
+                    int tokens = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (bucket.tryAcquire() == 0) {
+                            tokens++;
+                        }
+                    }
+                    return tokens;
+                }));
+            }
+            start.countDown();
+            
+            int total = 0;
+            for (Future<Integer> tokens : granted) {
+                total += tokens.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(burst);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.nlsql.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValueTrieTest {
+    
+    private final ValueTrie<String> trie = ValueTrie.<String>builder()
+        .add("New York", "city:New York")
+        .add("New York City", "city:New York City")
+        .add("York", "city:York")
+        .add("Engineering", "department:Engineering")
+        .add("Sales", "department:Sales")
+        .add("Sales", "team:Sales")
+        .build();
+    
+    @Test
+    void findsPhrasesInOrderWithTheirPositions() {
+        List<ValueTrie.Match<String>> matches = trie.findAll("engineering staff in york");
+        
+        assertThat(matches).extracting(ValueTrie.Match::values)
+            .containsExactly(List.of("department:Engineering"), List.of("city:York"));
+        assertThat(matches.get(0).start()).isZero();
+        assertThat(matches.get(0).end()).isEqualTo("engineering".length());
+        assertThat(matches.get(1).start()).isEqualTo("engineering staff in ".length());
+    }
+    
+    @Test
+    void prefersTheLongestPhraseAndDoesNotOverlap() {
+        assertThat(trie.findAll("offices in new york city"))
+            .extracting(ValueTrie.Match::values)
+            .containsExactly(List.of("city:New York City"));
+        assertThat(trie.findAll("offices in new york today"))
+            .extracting(ValueTrie.Match::values)
+            .containsExactly(List.of("city:New York"));
+    }
+    
+    @Test
+    void matchesOnlyWholeWords() {
+        assertThat(trie.findAll("yorkshire")).isEmpty();
+        assertThat(trie.findAll("newyork")).isEmpty();
+        assertThat(trie.findAll("presales team")).isEmpty();
+        assertThat(trie.findAll("(sales)")).hasSize(1);
+    }
+    
+    @Test
+    void keepsEveryValueOfAPhrase() {
+        assertThat(trie.findAll("sales"))
+            .singleElement()
+            .extracting(ValueTrie.Match::values)
+            .isEqualTo(List.of("department:Sales", "team:Sales"));
+        assertThat(trie.size()).isEqualTo(5);
+    }
+    
+    @Test
+    void expectsLowerCasedText() {
+        assertThat(trie.findAll("Sales")).isEmpty();
+    }
+    
+    @Test
+    void emptyTrieFindsNothing() {
+        ValueTrie<String> empty = ValueTrie.<String>builder().add("", "ignored").build();
+        
+        assertThat(empty.size()).isZero();
+        assertThat(empty.findAll("anything at all")).isEmpty();
+    }
+}
\ No newline at end of file
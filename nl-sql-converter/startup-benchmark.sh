@@ -0,0 +1,115 @@
+#!/bin/bash
+
+# NL-SQL Converter Startup Benchmark
+#
+# Starts the packaged application repeatedly and reports time-to-first-request
+# (process launch until /api/query/health answers) and resident set size.
+#
+# Usage: ./startup-benchmark.sh [runs]
+#   JAR=target/nl-sql-converter-1.0.0.jar   application to start
+#   CMD="..."                               full launch command (overrides JAR)
+#   JAVA_OPTS="-XX:SharedArchiveFile=..."   extra JVM flags
+#   PORT=8080                               port the application listens on
+
+set -e
+
+RUNS=${1:-5}
+JAR=${JAR:-target/nl-sql-converter-1.0.0.jar}
+PORT=${PORT:-8080}
+HEALTH_URL="http://localhost:${PORT}/api/query/health"
+CMD_SET=true
+if [ -z "$CMD" ]; then
+    CMD="java ${JAVA_OPTS} -jar ${JAR} --server.port=${PORT}"
+    CMD_SET=false
+fi
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+print_status() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+print_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+print_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Resident set size of a process in KB
+rss_kb() {
+    awk '/VmRSS/ {print $2}' "/proc/$1/status" 2>/dev/null || echo 0
+}
+
+# Prints "<elapsed ms> <rss kb>"; returns non-zero if the application never answered
+run_once() {
+    local start pid elapsed rss ready=false
+
+    start=$(now_ms)
+    $CMD > /dev/null 2>&1 &
+    pid=$!
+
+    for i in {1..1200}; do
+        if curl -s -o /dev/null -w "%{http_code}" "$HEALTH_URL" 2>/dev/null | grep -q 200; then
+            ready=true
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            print_error "Application exited before answering $HEALTH_URL" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(rss_kb "$pid")
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+
+    if [ "$ready" = false ]; then
+        print_error "$HEALTH_URL did not answer within ${elapsed} ms" >&2
+        return 1
+    fi
+
+    echo "$elapsed $rss"
+}
+
+main() {
+    if [ "$CMD_SET" = false ] && [ ! -f "$JAR" ]; then
+        print_error "$JAR not found. Run 'mvn package' first."
+        exit 1
+    fi
+
+    print_status "Command: $CMD"
+    print_status "Runs: $RUNS"
+
+    local total_ms=0 total_rss=0 min_ms=0 max_ms=0 result
+    for run in $(seq 1 "$RUNS"); do
+        # A failed run would skew every figure, so the benchmark stops at the first one
+        if ! result=$(run_once); then
+            print_error "run $run failed"
+            exit 1
+        fi
+        read -r ms rss <<< "$result"
+        echo "   run $run: first request after ${ms} ms, RSS $(( rss / 1024 )) MB"
+        total_ms=$(( total_ms + ms ))
+        total_rss=$(( total_rss + rss ))
+        if [ "$min_ms" -eq 0 ] || [ "$ms" -lt "$min_ms" ]; then min_ms=$ms; fi
+        if [ "$ms" -gt "$max_ms" ]; then max_ms=$ms; fi
+    done
+
+    print_success "time-to-first-request: mean $(( total_ms / RUNS )) ms, min ${min_ms} ms, max ${max_ms} ms"
+    print_success "RSS after first request: mean $(( total_rss / RUNS / 1024 )) MB"
+}
+
+main "$@"